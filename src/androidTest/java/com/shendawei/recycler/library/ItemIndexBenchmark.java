@@ -0,0 +1,197 @@
+package com.shendawei.recycler.library;
+
+import android.util.Log;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.shendawei.recycler.library.adapter.base.BaseHolder;
+import com.shendawei.recycler.library.adapter.base.BaseRecyclerAdapter;
+import com.shendawei.recycler.library.adapter.base.HolderCallback;
+import com.shendawei.recycler.library.adapter.base.ItemKeyProvider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 100k数据下，key索引查找与ArrayList线性查找（indexOf／removeAll）的耗时对比
+ * 仪器测试，需在设备上运行，结果输出到logcat（tag ItemIndexBenchmark），不做耗时断言；
+ * 头部插入场景断言key的计算次数，已索引区间不因插入被重新扫描
+ * 访问顺序分别覆盖：从尾到头（线性查找最差、key索引最好）、随机、从头到尾，以及头部插入后查找尾部item
+ */
+@RunWith(AndroidJUnit4.class)
+public class ItemIndexBenchmark {
+    private static final String TAG = "ItemIndexBenchmark";
+    private static final int SIZE = 100000;
+    private static final int OPERATIONS = 2000;
+
+    @Test
+    public void changeAndRemoveTailFirst() {
+        int[] order = new int[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            order[i] = SIZE - 1 - i * 40;
+        }
+        changeAndRemoveByItem("tail first", order);
+    }
+
+    @Test
+    public void changeAndRemoveRandomOrder() {
+        List<Integer> indices = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            indices.add(i);
+        }
+        Collections.shuffle(indices, new Random(42));
+        int[] order = new int[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            order[i] = indices.get(i);
+        }
+        changeAndRemoveByItem("random", order);
+    }
+
+    @Test
+    public void changeAndRemoveHeadFirst() {
+        int[] order = new int[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            order[i] = i * 40;
+        }
+        changeAndRemoveByItem("head first", order);
+    }
+
+    @Test
+    public void insertHeadThenChangeTail() {
+        List<String> items = createItems();
+        BenchAdapter plain = new BenchAdapter();
+        BenchAdapter keyed = new BenchAdapter();
+        HashKeyProvider keyProvider = new HashKeyProvider();
+        keyed.setItemKeyProvider(keyProvider);
+        plain.addItems(items);
+        keyed.addItems(items);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            plain.addItem(0, "head" + i);
+            plain.changeItem(items.get(SIZE - 1 - i));
+        }
+        long plainTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            keyed.addItem(0, "head" + i);
+            keyed.changeItem(items.get(SIZE - 1 - i));
+        }
+        long keyedTime = System.nanoTime() - start;
+
+        assertEquals(plain.getItems(), keyed.getItems());
+        // 首次查找补建全部索引，此后每轮：新item的key、查找key及校验
+        assertTrue("key calls " + keyProvider.mCalls, keyProvider.mCalls <= SIZE + OPERATIONS * 3);
+        Log.i(TAG, "addItem(0) + changeItem(tail) x" + OPERATIONS + ": indexOf " + plainTime / 1000000
+                + "ms, keyed " + keyedTime / 1000000 + "ms");
+    }
+
+    private void changeAndRemoveByItem(String label, int[] order) {
+        List<String> items = createItems();
+        BenchAdapter plain = new BenchAdapter();
+        BenchAdapter keyed = new BenchAdapter();
+        keyed.setItemKeyProvider(new HashKeyProvider());
+        plain.addItems(items);
+        keyed.addItems(items);
+
+        long start = System.nanoTime();
+        for (int index : order) {
+            plain.changeItem(items.get(index));
+        }
+        long plainChange = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int index : order) {
+            keyed.changeItem(items.get(index));
+        }
+        long keyedChange = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int index : order) {
+            plain.removeItem(items.get(index));
+        }
+        long plainRemove = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int index : order) {
+            keyed.removeItem(items.get(index));
+        }
+        long keyedRemove = System.nanoTime() - start;
+
+        assertEquals(plain.getItems(), keyed.getItems());
+        Log.i(TAG, label + " changeItem x" + order.length + ": indexOf " + plainChange / 1000000 + "ms, keyed " + keyedChange / 1000000 + "ms");
+        Log.i(TAG, label + " removeItem(T) x" + order.length + ": indexOf " + plainRemove / 1000000 + "ms, keyed " + keyedRemove / 1000000 + "ms");
+    }
+
+    @Test
+    public void removeRange() {
+        List<String> items = createItems();
+        // 原实现：复制区间后removeAll
+        List<String> reference = new ArrayList<>(items);
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            int from = reference.size() / 2;
+            List<String> range = new ArrayList<>(reference.subList(from, from + 100));
+            reference.removeAll(range);
+        }
+        long removeAll = System.nanoTime() - start;
+
+        BenchAdapter adapter = new BenchAdapter();
+        adapter.addItems(items);
+        start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            int from = adapter.getItemCount() / 2;
+            adapter.removeItemsRange(from, from + 99);
+        }
+        long rangeClear = System.nanoTime() - start;
+
+        assertEquals(reference, adapter.getItems());
+        Log.i(TAG, "removeItemsRange(100) x100: removeAll " + removeAll / 1000000 + "ms, single shift " + rangeClear / 1000000 + "ms");
+    }
+
+    private static List<String> createItems() {
+        List<String> items = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            items.add("item" + i);
+        }
+        return items;
+    }
+
+    private static class HashKeyProvider implements ItemKeyProvider<String> {
+        int mCalls;
+
+        @Override
+        public long getItemKey(@NonNull String item) {
+            mCalls++;
+            return item.hashCode();
+        }
+    }
+
+    private static class BenchAdapter extends BaseRecyclerAdapter<String, BaseHolder<String, HolderCallback>, HolderCallback> {
+
+        BenchAdapter() {
+            super(null);
+        }
+
+        @Override
+        protected void generateFactories() {
+        }
+
+        @NonNull
+        @Override
+        public BaseHolder<String, HolderCallback> onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull BaseHolder<String, HolderCallback> holder, int position) {
+        }
+    }
+}
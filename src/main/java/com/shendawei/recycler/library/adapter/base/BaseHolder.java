@@ -1,7 +1,9 @@
 package com.shendawei.recycler.library.adapter.base;
 
 import android.content.Context;
+import android.util.Log;
 import android.util.SparseArray;
+import android.util.SparseIntArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -9,20 +11,43 @@ import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.ArrayDeque;
+
 /**
  * @author shendawei
  * @classname BaseHolder
  * @description
+ * 子View查找
+ * 1. Factory通过{@link Factory#getDeclaredViewIds()}声明子View id，holder创建时一次性解析为数组，
+ *  {@link #getViewAt(int)}按声明顺序O(1)获取，{@link #getView(int)}亦优先命中
+ * 2. 未声明的id按原方式findViewById后缓存
+ * 3. {@link #setStrictViewLookup(boolean)}开启后（建议仅debug），创建完成后查找未声明的id会打印警告
  * @date 2020/7/17 20:16
  */
 public abstract class BaseHolder<T, Cb extends HolderCallback> extends RecyclerView.ViewHolder {
 
+    private static final String TAG = "BaseHolder";
+    private static boolean sStrictViewLookup;
+
     protected Context context;
     protected LayoutInflater inflater;
     protected T item;
     protected int position;
     protected Cb holderCallback;
     private final SparseArray<View> views;
+    /**
+     * 声明的子View，下标与声明顺序一致；slots为Factory共享的id -> 下标表
+     */
+    private View[] mDeclaredViews;
+    private SparseIntArray mDeclaredSlots;
+    /**
+     * holder创建完成（initView之后），此后的查找视为bind路径
+     */
+    private boolean mViewsResolved;
+    /**
+     * 由{@link CompositeAdapter}在子adapter绑定前设置、回收时清除，用于将adapter position换算为子adapter内的本地位置
+     */
+    CompositeAdapter mCompositeAdapter;
 
     public BaseHolder(View itemView, Cb holderCb) {
         super(itemView);
@@ -41,13 +66,41 @@ public abstract class BaseHolder<T, Cb extends HolderCallback> extends RecyclerV
     }
 
 
+    /**
+     * 绑定占位行（分页加载中，item为null），子类可覆写展示骨架样式
+     */
+    public void bindPlaceholder(int position) {
+        this.item = null;
+        this.position = position;
+    }
+
+    /**
+     * 局部刷新，payloadMask为合并后的{@link ItemPayload} flag
+     * 默认：含{@link ItemPayload#FLAG_CONTENT}时完整重新绑定，其他flag由子类覆写处理
+     */
+    public void bindData(@NonNull T item, int position, int payloadMask) {
+        if ((payloadMask & ItemPayload.FLAG_CONTENT) != 0) {
+            bindData(item, position);
+            return;
+        }
+        this.item = item;
+        this.position = position;
+    }
+
     public void bindData(@NonNull T item, int position, Object payload) {
         this.item = item;
+        this.position = position;
 //        setBackground(getCornerType());
     }
 
     @SuppressWarnings("unchecked")
     public <V extends View> V getView(int viewId) {
+        if (mDeclaredSlots != null) {
+            int slot = mDeclaredSlots.get(viewId, -1);
+            if (slot >= 0) {
+                return (V) mDeclaredViews[slot];
+            }
+        }
         View child = views.get(viewId);
         if (child == null) {
             child = itemView.findViewById(viewId);
@@ -55,10 +108,66 @@ public abstract class BaseHolder<T, Cb extends HolderCallback> extends RecyclerV
                 throw new RuntimeException("Can't find child view of viewId : " + viewId + " in BaseHolder!");
             }
             views.put(viewId, child);
+            if (sStrictViewLookup && mViewsResolved) {
+                Log.w(TAG, getClass().getName() + " looks up undeclared view id 0x"
+                        + Integer.toHexString(viewId) + " on bind path, declare it in Factory.getDeclaredViewIds()");
+            }
         }
         return (V) child;
     }
 
+    /**
+     * 按{@link Factory#getDeclaredViewIds()}的声明顺序获取子View，O(1)
+     */
+    @SuppressWarnings("unchecked")
+    public <V extends View> V getViewAt(int index) {
+        if (mDeclaredViews == null || index < 0 || index >= mDeclaredViews.length) {
+            throw new IndexOutOfBoundsException("No declared view at index " + index + " in " + getClass().getName());
+        }
+        return (V) mDeclaredViews[index];
+    }
+
+    /**
+     * 创建完成后查找未声明的id时打印警告，用于排查bind路径上的findViewById
+     */
+    public static void setStrictViewLookup(boolean strict) {
+        sStrictViewLookup = strict;
+    }
+
+    /**
+     * 由Factory在holder创建后调用，解析声明的子View
+     */
+    final void resolveDeclaredViews(int[] viewIds, SparseIntArray slots) {
+        if (viewIds != null) {
+            View[] declaredViews = new View[viewIds.length];
+            for (int i = 0; i < viewIds.length; i++) {
+                View child = views.get(viewIds[i]);
+                if (child == null) {
+                    child = itemView.findViewById(viewIds[i]);
+                }
+                if (child == null) {
+                    throw new RuntimeException("Can't find declared child view of viewId : " + viewIds[i] + " in BaseHolder!");
+                }
+                declaredViews[i] = child;
+            }
+            mDeclaredViews = declaredViews;
+            mDeclaredSlots = slots;
+        }
+        mViewsResolved = true;
+    }
+
+    /**
+     * 实时位置，插入／删除后无需重新绑定即可获取正确位置
+     * 未绑定到adapter（如正在移除）时返回最近一次绑定的位置；在CompositeAdapter中返回子adapter内的本地位置
+     */
+    public int getLivePosition() {
+        int adapterPosition = getAdapterPosition();
+        if (adapterPosition == RecyclerView.NO_POSITION) {
+            return position;
+        }
+        return mCompositeAdapter != null ? mCompositeAdapter.getLocalPosition(adapterPosition) : adapterPosition;
+    }
+
     public T getItem() {
         return item;
     }
@@ -68,14 +177,106 @@ public abstract class BaseHolder<T, Cb extends HolderCallback> extends RecyclerV
     }
 
     public abstract static class Factory<T, C extends HolderCallback> {
+        /**
+         * 后台预加载的itemView，仅主线程访问
+         */
+        private final ArrayDeque<View> mPreInflatedViews = new ArrayDeque<>();
+        /**
+         * 声明的子View id及id -> 下标表，首次创建holder时生成，所有holder共享
+         */
+        private int[] mDeclaredViewIds;
+        private SparseIntArray mDeclaredSlots;
+        private boolean mDeclaredViewIdsLoaded;
 
         public BaseHolder<T, C> createViewHolder(ViewGroup parent, int viewType, C holderCallback) {
+            return resolveViews(onCreateViewHolder(inflateItemView(parent), holderCallback));
+        }
+
+        /**
+         * holder创建后解析声明的子View，覆写createViewHolder时须调用
+         */
+        protected final <H extends BaseHolder<T, C>> H resolveViews(H holder) {
+            if (!mDeclaredViewIdsLoaded) {
+                mDeclaredViewIdsLoaded = true;
+                int[] viewIds = getDeclaredViewIds();
+                if (viewIds != null && viewIds.length > 0) {
+                    SparseIntArray slots = new SparseIntArray(viewIds.length);
+                    for (int i = 0; i < viewIds.length; i++) {
+                        slots.put(viewIds[i], i);
+                    }
+                    mDeclaredViewIds = viewIds.clone();
+                    mDeclaredSlots = slots;
+                }
+            }
+            holder.resolveDeclaredViews(mDeclaredViewIds, mDeclaredSlots);
+            return holder;
+        }
+
+        /**
+         * holder在bind时用到的子View id，创建时一次性解析，可通过{@link BaseHolder#getViewAt(int)}按下标获取
+         *
+         * @return 默认null，不声明
+         */
+        protected int[] getDeclaredViewIds() {
+            return null;
+        }
+
+        /**
+         * 优先取预加载的itemView，没有时同步inflate
+         */
+        protected final View inflateItemView(ViewGroup parent) {
+            View itemView = mPreInflatedViews.poll();
+            if (itemView != null) {
+                return itemView;
+            }
             LayoutInflater layoutInflater = LayoutInflater.from(parent.getContext());
-            return onCreateViewHolder(layoutInflater.inflate(getLayoutId(), parent, false), holderCallback);
+            return layoutInflater.inflate(getLayoutId(), parent, false);
+        }
+
+        /**
+         * 预加载的itemView，由{@link HolderPreloader}在主线程放入
+         */
+        final void offerPreInflatedView(View itemView) {
+            mPreInflatedViews.offer(itemView);
+        }
+
+        /**
+         * 移除未被消费的预加载itemView（adapter未经Factory创建holder时）
+         */
+        final void discardPreInflatedView(View itemView) {
+            mPreInflatedViews.remove(itemView);
         }
 
         protected abstract int getLayoutId();
 
+        /**
+         * 首次布局前预加载的holder数量，见{@link HolderPreloader}
+         *
+         * @return 默认0，不预加载
+         */
+        protected int getWarmUpCount() {
+            return 0;
+        }
+
+        /**
+         * 加入共享pool（{@link RecycledPoolRegistry}）时，该类型holder的pool容量
+         *
+         * @return 默认5，与RecycledViewPool默认值一致
+         */
+        protected int getMaxRecycledViews() {
+            return 5;
+        }
+
+        /**
+         * 布局是否可在后台线程inflate
+         * 含有要求主线程创建的View（如WebView、使用Handler的自定义View）时返回false，改为主线程同步inflate
+         *
+         * @return 默认true
+         */
+        protected boolean isAsyncInflatable() {
+            return true;
+        }
+
         @NonNull
         protected abstract BaseHolder<T, C> onCreateViewHolder(@NonNull View itemView, C holderCallback);
     }
@@ -2,11 +2,29 @@ package com.shendawei.recycler.library.adapter.base;
 
 import android.annotation.SuppressLint;
 import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.Choreographer;
 
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.BatchingListUpdateCallback;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.shendawei.recycler.library.utils.KeyPositionList;
+import com.shendawei.recycler.library.utils.ThreadUtils;
+
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 支持功能
@@ -16,10 +34,20 @@ import java.util.List;
  *  正常创建方式：因内置Factory机制，通过{@link #generateFactories()}
  *  手动创建方式：子类onCreateViewHolder，传统方式new holder
  * 基本方法：【增】【删】【改】维护
+ * 差量刷新：设置{@link #setItemDiffCallback(DiffUtil.ItemCallback)}后，{@link #putItems(List)}在后台线程计算新旧数据差异，
+ *  主线程仅分发最小的增删移改通知；过期的diff结果直接丢弃
+ * stable id：{@link #setItemKeyProvider(ItemKeyProvider)}提供item key作为item id，并维护key -> position索引
+ * 共享pool：{@link #joinSharedPool(RecycledPoolRegistry)}，多个adapter间复用相同Factory的holder
+ * 分页：{@link #setPagedSource(PagedSource)}，按绑定position预取，请求期间以null item作为占位行
+ * 批量修改：{@link #beginTransaction()}／多次修改／{@link #commitTransaction()}，相邻的同类区间通知合并为一次，
+ *  尾部position刷新在提交时合并为一次；单次修改亦按事务处理
+ * 跨线程修改：{@link #postMutation(Mutation)}等post方法可在任意线程调用，修改进入队列，
+ *  每帧（vsync）在主线程以一个事务统一应用，高频推送的通知按事务规则合并
  *
  * 注意事项
  * adapter插入或删除item后需调用notifyItemRangeChanged，更新变化的item信息；
- * 否则position位置是错误的。
+ * 否则position位置是错误的。（基类已在事务提交时合并为一次尾部刷新）
+ * 开启{@link #setLivePositionEnabled(boolean)}后，holder读取实时adapter position，不再需要尾部刷新；排序模式同样不做尾部刷新
  * 参考源码api(item change&structural change)
  *
  * @author shendawei
@@ -28,10 +56,102 @@ import java.util.List;
  * @date 2020/5/15 10:28
  */
 public abstract class BaseRecyclerAdapter<T, V extends BaseHolder<? extends T, HCb>, HCb extends HolderCallback> extends RecyclerView.Adapter<V> {
+    /**
+     * 排序模式重排时逐个通知move的上限，超过时改为整段刷新
+     */
+    private static final int MAX_REORDER_MOVES = 64;
 
     protected SparseArray<V.Factory<? extends T, HCb>> mFactories;
     protected List<T> mDataSource;
     protected HCb mHolderCb;
+    /**
+     * 非空时putItems采用后台diff替换数据
+     */
+    protected DiffUtil.ItemCallback<T> mItemDiffCallback;
+    private Executor mDiffExecutor;
+    /**
+     * 排序模式的比较器，见{@link #setSortComparator(Comparator)}
+     */
+    private Comparator<? super T> mSortComparator;
+    /**
+     * 最近一次提交diff的序号，用于丢弃过期的diff结果
+     */
+    private int mMaxScheduledGeneration;
+    /**
+     * 数据版本，每次修改mDataSource自增；diff计算期间数据被修改时，结果作废改为整体刷新
+     */
+    private int mDataVersion;
+    /**
+     * 事务：合并连续的增删改通知
+     */
+    private final BatchingListUpdateCallback mBatchingCallback = new BatchingListUpdateCallback(new AdapterListUpdateCallback(this));
+    private final ListUpdateCallback mTransactionCallback = new ListUpdateCallback() {
+        @Override
+        public void onInserted(int position, int count) {
+            dispatchItemRangeInserted(position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            dispatchItemRangeRemoved(position, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            dispatchItemMoved(fromPosition, toPosition);
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            dispatchItemRangeChanged(position, count, payload);
+        }
+    };
+    private int mTransactionDepth;
+    /**
+     * 事务期间，位置发生变化的最小position，提交时统一刷新尾部
+     */
+    private int mPositionShiftFrom = Integer.MAX_VALUE;
+    private boolean mDataSetChangedPending;
+    private boolean mLivePositionEnabled;
+    /**
+     * stable id：item key提供者及key -> position索引
+     * 索引惰性建立：已索引区间为当前位置[0, mKeyIndex.size())，查找未命中时从区间末尾补建至命中为止
+     * 已索引区间内的增删、替换即时更新索引，插入的item在加入时计算key；位置按块增量维护，
+     * 头部的增删不会作废其后的索引
+     */
+    protected ItemKeyProvider<? super T> mKeyProvider;
+    private final KeyPositionList mKeyIndex = new KeyPositionList();
+    /**
+     * 共享pool：本地viewType与注册表viewType的映射，未加入时为null
+     */
+    private SparseIntArray mLocalToSharedTypes;
+    private SparseIntArray mSharedToLocalTypes;
+    private RecycledPoolRegistry mSharedPoolRegistry;
+    /**
+     * 分页数据源，非空时绑定position驱动分页加载
+     */
+    private PagedSource<T> mPagedSource;
+    /**
+     * PagedSource正在应用加载完成的页
+     */
+    private boolean mApplyingPage;
+    /**
+     * 跨线程修改队列，每帧由Choreographer回调在主线程一次性应用
+     */
+    private final ConcurrentLinkedQueue<Mutation<T>> mPendingMutations = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean mMutationFrameScheduled = new AtomicBoolean();
+    private final Choreographer.FrameCallback mMutationFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            applyPendingMutations();
+        }
+    };
+    private final Runnable mScheduleMutationFrame = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(mMutationFrameCallback);
+        }
+    };
 
     public BaseRecyclerAdapter(HCb hcb) {
         mFactories = new SparseArray<>();
@@ -46,47 +166,587 @@ public abstract class BaseRecyclerAdapter<T, V extends BaseHolder<? extends T, H
      */
     protected abstract void generateFactories();
 
+    /**
+     * 加入共享pool注册表，须在setAdapter之前调用
+     * 之后viewType由注册表按Factory派生，子类getItemViewType／onCreateViewHolder须经过
+     * {@link #mapViewType(int)}／{@link #unmapViewType(int)}转换
+     */
+    public void joinSharedPool(@NonNull RecycledPoolRegistry registry) {
+        mSharedPoolRegistry = registry;
+        mLocalToSharedTypes = new SparseIntArray();
+        mSharedToLocalTypes = new SparseIntArray();
+        for (int i = 0; i < mFactories.size(); i++) {
+            int localType = mFactories.keyAt(i);
+            int sharedType = registry.obtainViewType(mFactories.valueAt(i));
+            mLocalToSharedTypes.put(localType, sharedType);
+            mSharedToLocalTypes.put(sharedType, localType);
+        }
+    }
+
+    public boolean isSharedPoolJoined() {
+        return mLocalToSharedTypes != null;
+    }
+
+    @Nullable
+    RecycledPoolRegistry getSharedPoolRegistry() {
+        return mSharedPoolRegistry;
+    }
+
+    /**
+     * 本地viewType -> RecyclerView使用的viewType
+     * 加入共享pool后，未注册Factory的本地type可能与其他adapter的共享type冲突，抛出异常
+     */
+    protected final int mapViewType(int localType) {
+        if (mLocalToSharedTypes == null) {
+            return localType;
+        }
+        int sharedType = mLocalToSharedTypes.get(localType, RecyclerView.INVALID_TYPE);
+        if (sharedType == RecyclerView.INVALID_TYPE) {
+            throw new IllegalStateException("viewType " + localType + " has no factory registered in generateFactories(), "
+                    + "can't be used with a shared pool");
+        }
+        return sharedType;
+    }
+
+    /**
+     * RecyclerView使用的viewType -> 本地viewType（mFactories的key）
+     */
+    protected final int unmapViewType(int viewType) {
+        if (mSharedToLocalTypes == null) {
+            return viewType;
+        }
+        int localType = mSharedToLocalTypes.get(viewType, RecyclerView.INVALID_TYPE);
+        if (localType == RecyclerView.INVALID_TYPE) {
+            throw new IllegalStateException("viewType " + viewType + " doesn't belong to this adapter's shared types");
+        }
+        return localType;
+    }
+
+    /**
+     * 绑定前调用，共享pool中的holder可能由其他adapter创建，重新关联本adapter的回调
+     */
+    protected void attachHolder(@NonNull V holder) {
+        holder.holderCallback = mHolderCb;
+    }
+
+    /**
+     * 设置分页数据源，之后数据由PagedSource维护
+     *
+     * @param pagedSource null退出分页模式
+     */
+    public void setPagedSource(@Nullable PagedSource<T> pagedSource) {
+        if (mPagedSource != null) {
+            mPagedSource.onAttached(null);
+        }
+        mPagedSource = pagedSource;
+        if (pagedSource != null) {
+            pagedSource.onAttached(this);
+        }
+    }
+
+    @Nullable
+    public PagedSource<T> getPagedSource() {
+        return mPagedSource;
+    }
+
+    /**
+     * 由{@link PagedSource}在应用加载结果前后调用
+     */
+    final void setApplyingPage(boolean applyingPage) {
+        mApplyingPage = applyingPage;
+    }
+
+    /**
+     * 当前的插入／替换是否为PagedSource应用加载完成的页（替换占位行、追加item），
+     * 子类可据此区分分页加载与业务调用的增删改
+     */
+    protected final boolean isApplyingPage() {
+        return mApplyingPage;
+    }
+
+    /**
+     * 分页占位行（item为null）使用的本地viewType，须为{@link #generateFactories()}注册过的类型，
+     * 对应holder通过{@link BaseHolder#bindPlaceholder(int)}展示
+     *
+     * @return 默认0
+     */
+    protected int getPlaceholderViewType() {
+        return 0;
+    }
+
+    /**
+     * 子类onBindViewHolder时调用，驱动分页预取
+     */
+    protected final void onBindPosition(int position) {
+        if (mPagedSource != null) {
+            mPagedSource.onBindPosition(position);
+        }
+    }
+
+    /**
+     * 占位行（分页加载中，或窗口模式下被淘汰的页），对应item为null
+     */
+    public boolean isPlaceholder(int position) {
+        return mDataSource.get(position) == null;
+    }
+
     @Override
     public int getItemCount() {
         return mDataSource == null ? 0 : mDataSource.size();
     }
 
+    /**
+     * 有key提供者时，返回item key作为stable id
+     * 未设置时保留旧逻辑（hashCode + position），该值随插入／删除变化，不建议开启stable id
+     */
     @Override
     public long getItemId(int position) {
+        if (mKeyProvider != null) {
+            return getItemKey(position);
+        }
         if (hasStableIds()) {
-            return mDataSource.get(position).hashCode() + position;
+            T item = mDataSource.get(position);
+            return item == null ? RecyclerView.NO_ID : item.hashCode() + position;
         }
         return super.getItemId(position);
     }
 
+    /**
+     * 设置item key提供者，开启stable id时须在setAdapter前调用setHasStableIds(true)
+     *
+     * @param keyProvider null关闭key索引
+     */
+    public void setItemKeyProvider(@Nullable ItemKeyProvider<? super T> keyProvider) {
+        mKeyProvider = keyProvider;
+        resetKeyIndex();
+    }
+
+    public boolean hasItemKeys() {
+        return mKeyProvider != null;
+    }
+
+    /**
+     * @return 指定位置item的key；未设置key提供者或item为空时返回RecyclerView.NO_ID
+     */
+    public long getItemKey(int position) {
+        T item = mDataSource.get(position);
+        if (mKeyProvider == null || item == null) {
+            return RecyclerView.NO_ID;
+        }
+        return mKeyProvider.getItemKey(item);
+    }
+
+    /**
+     * 按key查找位置
+     * 命中索引时O(log n)；已索引区间之后的item首次查找时补建索引，扫描至目标item为止；整体替换数据后需重新补建
+     *
+     * @return 不存在返回RecyclerView.NO_POSITION
+     */
+    public int getPositionForKey(long key) {
+        if (mKeyProvider == null) {
+            return RecyclerView.NO_POSITION;
+        }
+        int position = mKeyIndex.positionOf(key);
+        if (position != -1) {
+            if (getItemKey(position) == key) {
+                return position;
+            }
+            // 数据未经通知被修改（如item的key字段原位变化），索引不再可靠
+            resetKeyIndex();
+        }
+        // 已索引区间内不存在，补建索引直到命中
+        return scanKeyIndex(key);
+    }
+
+    @Nullable
+    public T getItemForKey(long key) {
+        int position = getPositionForKey(key);
+        return position == RecyclerView.NO_POSITION ? null : mDataSource.get(position);
+    }
+
+    /**
+     * 从已索引区间末尾开始补建索引，遇到目标key即停止
+     *
+     * @return 目标key的位置，不存在返回NO_POSITION
+     */
+    private int scanKeyIndex(long targetKey) {
+        for (int i = mKeyIndex.size(), size = mDataSource.size(); i < size; i++) {
+            long key = keyOf(mDataSource.get(i));
+            mKeyIndex.add(key);
+            if (key == targetKey && key != KeyPositionList.NO_KEY) {
+                return i;
+            }
+        }
+        return RecyclerView.NO_POSITION;
+    }
+
+    /**
+     * @return 占位行没有key，返回{@link KeyPositionList#NO_KEY}
+     */
+    private long keyOf(T item) {
+        return item == null ? KeyPositionList.NO_KEY : mKeyProvider.getItemKey(item);
+    }
+
+    private void resetKeyIndex() {
+        mKeyIndex.clear();
+    }
+
+    /**
+     * 查找item位置：设置了key提供者时按key索引查找（见{@link #getPositionForKey(long)}），未命中或未设置时退回equals线性查找
+     *
+     * @return 不存在返回-1
+     */
+    protected final int indexOfItem(T item) {
+        if (mKeyProvider != null && item != null) {
+            if (mKeyProvider instanceof IdentityItemKeyProvider
+                    && !((IdentityItemKeyProvider<? super T>) mKeyProvider).hasKey(item)) {
+                // 未分配过key的对象不在数据集中，但可能有equals相等的item
+                return mDataSource.indexOf(item);
+            }
+            int position = getPositionForKey(mKeyProvider.getItemKey(item));
+            if (position != RecyclerView.NO_POSITION) {
+                return position;
+            }
+        }
+        return mDataSource.indexOf(item);
+    }
+
+    /**
+     * mDataSource修改后调用，作废进行中的diff并截断key索引的已索引区间
+     * 单纯的增删、原位替换分别使用{@link #onDataSourceShifted(int, int)}、{@link #onDataSourceReplaced(int, int)}，保留索引
+     *
+     * @param fromPosition 发生变化的第一个位置
+     */
+    protected final void onDataSourceChanged(int fromPosition) {
+        mDataVersion++;
+        fromPosition = Math.max(0, fromPosition);
+        if (fromPosition < mKeyIndex.size()) {
+            mKeyIndex.truncate(fromPosition);
+        }
+    }
+
+    /**
+     * 在position插入delta个item（delta为正），或删除[position, position - delta)（delta为负）后调用
+     * 已索引区间内插入的item即时加入索引，删除的item移出索引，其后的索引无需重建
+     */
+    protected final void onDataSourceShifted(int position, int delta) {
+        mDataVersion++;
+        int indexedCount = mKeyIndex.size();
+        if (position >= indexedCount || delta == 0) {
+            return;
+        }
+        if (delta < 0) {
+            // 删除区间超出已索引区间的部分不影响索引
+            mKeyIndex.remove(position, Math.min(-delta, indexedCount - position));
+            return;
+        }
+        long[] keys = new long[delta];
+        for (int i = 0; i < delta; i++) {
+            keys[i] = keyOf(mDataSource.get(position + i));
+        }
+        mKeyIndex.insert(position, keys, delta);
+    }
+
+    /**
+     * 原位替换[position, position + count)后调用，已索引区间内的新item直接更新索引
+     */
+    protected final void onDataSourceReplaced(int position, int count) {
+        mDataVersion++;
+        for (int i = position, end = Math.min(position + count, mKeyIndex.size()); i < end; i++) {
+            mKeyIndex.set(i, keyOf(mDataSource.get(i)));
+        }
+    }
+
     public List<? extends T> getItems() {
         return mDataSource;
     }
 
+    /**
+     * 开启差量刷新模式
+     *
+     * @param diffCallback item身份及内容比较，null关闭差量刷新
+     */
+    public void setItemDiffCallback(@Nullable DiffUtil.ItemCallback<T> diffCallback) {
+        mItemDiffCallback = diffCallback;
+    }
+
+    /**
+     * 指定diff计算线程池，默认{@link ThreadUtils#getBackgroundExecutor()}
+     */
+    public void setDiffExecutor(@Nullable Executor executor) {
+        mDiffExecutor = executor;
+    }
+
     /**
      * 重置数据集
      *
      * @param items
      */
     public void putItems(List<? extends T> items) {
+        putItems(items, null);
+    }
+
+    /**
+     * 重置数据集
+     * 差量刷新模式下异步生效，生效后回调commitCallback；被后续提交覆盖的数据不会生效，也不会回调
+     *
+     * @param items
+     * @param commitCallback 数据生效后主线程回调
+     */
+    public void putItems(List<? extends T> items, @Nullable Runnable commitCallback) {
         if (items == null) {
             return;
         }
-        if (mDataSource.size() > 0) {
+        if (mItemDiffCallback != null) {
+            submitItems(new ArrayList<T>(items), commitCallback);
+            return;
+        }
+        // 取消进行中的diff
+        mMaxScheduledGeneration++;
+        onItemsReplacing(items);
+        mDataSource.clear();
+        mDataSource.addAll(items);
+        onDataSourceChanged(0);
+        dispatchDataSetChanged();
+        if (commitCallback != null) {
+            commitCallback.run();
+        }
+    }
+
+    private void submitItems(@NonNull final List<T> newItems, @Nullable final Runnable commitCallback) {
+        final int generation = ++mMaxScheduledGeneration;
+        if (mDataSource.isEmpty() || newItems.isEmpty()) {
+            // 一方为空时无需diff，直接整段插入／移除
+            int oldSize = mDataSource.size();
+            onItemsReplacing(newItems);
             mDataSource.clear();
-            notifyDataSetChanged();
+            mDataSource.addAll(newItems);
+            onDataSourceChanged(0);
+            beginTransaction();
+            dispatchItemRangeRemoved(0, oldSize);
+            dispatchItemRangeInserted(0, newItems.size());
+            commitTransaction();
+            if (commitCallback != null) {
+                commitCallback.run();
+            }
+            return;
         }
 
-        mDataSource.addAll(items);
-        notifyDataSetChanged();
+        final List<T> oldItems = new ArrayList<>(mDataSource);
+        final int dataVersion = mDataVersion;
+        final DiffUtil.ItemCallback<T> itemCallback = mItemDiffCallback;
+        Executor executor = mDiffExecutor != null ? mDiffExecutor : ThreadUtils.getBackgroundExecutor();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final DiffUtil.DiffResult result = DiffUtil.calculateDiff(createDiffCallback(oldItems, newItems, itemCallback));
+                ThreadUtils.postOnMainThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (mMaxScheduledGeneration != generation) {
+                            // 已有更新的提交，丢弃
+                            return;
+                        }
+                        latchItems(newItems, dataVersion == mDataVersion ? result : null, commitCallback);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 新旧数据的DiffUtil回调，null item之间按引用比较
+     */
+    static <T> DiffUtil.Callback createDiffCallback(@NonNull final List<T> oldItems, @NonNull final List<T> newItems,
+                                                    @NonNull final DiffUtil.ItemCallback<T> itemCallback) {
+        return new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldItems.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newItems.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                T oldItem = oldItems.get(oldItemPosition);
+                T newItem = newItems.get(newItemPosition);
+                if (oldItem == null || newItem == null) {
+                    return oldItem == newItem;
+                }
+                return itemCallback.areItemsTheSame(oldItem, newItem);
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                T oldItem = oldItems.get(oldItemPosition);
+                T newItem = newItems.get(newItemPosition);
+                if (oldItem == null || newItem == null) {
+                    return oldItem == newItem;
+                }
+                return itemCallback.areContentsTheSame(oldItem, newItem);
+            }
+
+            @Nullable
+            @Override
+            public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+                T oldItem = oldItems.get(oldItemPosition);
+                T newItem = newItems.get(newItemPosition);
+                if (oldItem == null || newItem == null) {
+                    return null;
+                }
+                return itemCallback.getChangePayload(oldItem, newItem);
+            }
+        };
+    }
+
+    /**
+     * 数据版本，供{@link ItemFilter}判断后台计算的diff是否仍然有效
+     */
+    int getDataVersion() {
+        return mDataVersion;
+    }
+
+    /**
+     * 主线程发布过滤结果，见{@link ItemFilter}
+     * 与putItems不同，被过滤掉的item仍属于数据集，子类通过{@link #onItemsFiltered(List, List)}保留与其相关的状态（如选中态）
+     *
+     * @param sourceItems 全量数据
+     * @param result      后台计算的diff，null或计算期间数据已被修改时整体刷新
+     * @param dataVersion 计算diff时的数据版本
+     */
+    void publishFilteredItems(@NonNull List<T> newItems, @NonNull List<T> sourceItems,
+                              @Nullable DiffUtil.DiffResult result, int dataVersion) {
+        // 取消进行中的putItems diff
+        mMaxScheduledGeneration++;
+        boolean diffValid = result != null && dataVersion == mDataVersion;
+        onItemsFiltered(newItems, sourceItems);
+        mDataSource.clear();
+        mDataSource.addAll(newItems);
+        onDataSourceChanged(0);
+        beginTransaction();
+        if (diffValid) {
+            result.dispatchUpdatesTo(getUpdateCallback());
+        } else {
+            dispatchDataSetChanged();
+        }
+        commitTransaction();
+    }
+
+    /**
+     * 主线程应用diff结果
+     *
+     * @param result null表示计算期间数据已被其他方法修改，diff不再可靠，整体刷新
+     */
+    private void latchItems(List<T> newItems, @Nullable DiffUtil.DiffResult result, @Nullable Runnable commitCallback) {
+        onItemsReplacing(newItems);
+        mDataSource.clear();
+        mDataSource.addAll(newItems);
+        onDataSourceChanged(0);
+        beginTransaction();
+        if (result != null) {
+            result.dispatchUpdatesTo(getUpdateCallback());
+        } else {
+            dispatchDataSetChanged();
+        }
+        commitTransaction();
+        if (commitCallback != null) {
+            commitCallback.run();
+        }
+    }
+
+    /**
+     * 数据集即将整体替换（主线程），此时mDataSource仍为旧数据，通知会先于替换的通知分发
+     * 子类可在此重置与数据相关的状态
+     *
+     * @param newItems 新数据集
+     */
+    protected void onItemsReplacing(@NonNull List<? extends T> newItems) {
+    }
+
+    /**
+     * 过滤结果即将发布（主线程），此时mDataSource仍为旧的可见数据
+     * 被过滤掉的item仍属于数据集，默认按整体替换处理，子类可覆写以保留状态
+     *
+     * @param visibleItems 过滤后的可见数据
+     * @param sourceItems  全量数据，只整体替换不修改，未变化时为同一实例
+     */
+    protected void onItemsFiltered(@NonNull List<? extends T> visibleItems, @NonNull List<? extends T> sourceItems) {
+        onItemsReplacing(visibleItems);
+    }
+
+    /**
+     * 以下回调在mDataSource修改完成后、通知分发前调用（主线程），子类可增量维护与数据相关的状态
+     *
+     * @param position 插入的起始位置
+     * @param items    插入的数据
+     */
+    protected void onItemsInserted(int position, @NonNull List<? extends T> items) {
+    }
+
+    /**
+     * @param position     移除的起始位置
+     * @param removedItems 被移除的数据
+     */
+    protected void onItemsRemoved(int position, @NonNull List<? extends T> removedItems) {
+    }
+
+    /**
+     * @param position 替换的位置
+     * @param oldItem  被替换的数据
+     * @param newItem  新数据，changeItem时与oldItem相同
+     */
+    protected void onItemReplaced(int position, T oldItem, T newItem) {
+    }
+
+    /**
+     * item在排序模式下因更新而移动位置，mDataSource修改完成后调用
+     * 默认按移除后插入处理，子类状态按key维护时可覆写避免丢失
+     *
+     * @param oldItem 移动前的数据
+     * @param newItem 移动后的数据，原位更新时与oldItem相同
+     */
+    protected void onItemMoved(int fromPosition, int toPosition, T oldItem, T newItem) {
+        onItemsRemoved(fromPosition, Collections.singletonList(oldItem));
+        onItemsInserted(toPosition, Collections.singletonList(newItem));
+    }
+
+    /**
+     * 分页窗口淘汰：一页数据原位替换为占位行，mDataSource修改完成后调用
+     * 默认逐个按替换为null处理，子类可覆写暂存按key维护的状态，页重新加载后恢复
+     *
+     * @param page         被淘汰的页，重新加载完成后以同一页回调{@link #onEvictedPageReloaded(int)}
+     * @param position     页起始位置
+     * @param evictedItems 被淘汰的数据
+     */
+    protected void onItemsEvicted(int page, int position, @NonNull List<? extends T> evictedItems) {
+        for (int i = 0, size = evictedItems.size(); i < size; i++) {
+            T item = evictedItems.get(i);
+            if (item != null) {
+                onItemReplaced(position + i, item, null);
+            }
+        }
+    }
+
+    /**
+     * 被淘汰的页重新加载完成，占位行已替换为新数据（新数据已经由onItemReplaced等回调）
+     * 子类可在此丢弃淘汰时暂存、但未随新数据返回的状态
+     */
+    protected void onEvictedPageReloaded(int page) {
     }
 
     /**
      * 清除数据集
      */
     public void clear() {
+        mMaxScheduledGeneration++;
+        onItemsReplacing(Collections.<T>emptyList());
         mDataSource.clear();
-        notifyDataSetChanged();
+        onDataSourceChanged(0);
+        dispatchDataSetChanged();
     }
 
     /**
@@ -96,8 +756,11 @@ public abstract class BaseRecyclerAdapter<T, V extends BaseHolder<? extends T, H
      */
     public void addItem(T item) {
         mDataSource.add(item);
-        notifyItemInserted(mDataSource.size());
-        notifyItemChanged(mDataSource.size());
+        onDataSourceChanged(mDataSource.size() - 1);
+        onItemsInserted(mDataSource.size() - 1, Collections.singletonList(item));
+        beginTransaction();
+        dispatchItemRangeInserted(mDataSource.size() - 1, 1);
+        commitTransaction();
     }
 
     /**
@@ -109,8 +772,12 @@ public abstract class BaseRecyclerAdapter<T, V extends BaseHolder<? extends T, H
     public void addItem(int index, T item) {
         checkDataValid(index);
         mDataSource.add(index, item);
-        notifyItemInserted(index);
-        notifyItemRangeChanged(index, mDataSource.size() - index);
+        onDataSourceShifted(index, 1);
+        onItemsInserted(index, Collections.singletonList(item));
+        beginTransaction();
+        dispatchItemRangeInserted(index, 1);
+        dispatchPositionShift(index + 1);
+        commitTransaction();
     }
 
     /**
@@ -121,8 +788,54 @@ public abstract class BaseRecyclerAdapter<T, V extends BaseHolder<? extends T, H
      */
     public void replaceItem(int index, T item) {
         checkDataValid(index);
-        mDataSource.set(index, item);
-        notifyItemChanged(index);
+        T oldItem = mDataSource.set(index, item);
+        onDataSourceReplaced(index, 1);
+        onItemReplaced(index, oldItem, item);
+        beginTransaction();
+        dispatchItemRangeChanged(index, 1, null);
+        commitTransaction();
+    }
+
+    /**
+     * 从指定位置起替换数据集合，合并为一次区间刷新
+     *
+     * @param index
+     * @param items
+     */
+    public void replaceItems(int index, List<? extends T> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        checkDataValid(index);
+        checkDataValid(index + items.size() - 1);
+        List<T> range = mDataSource.subList(index, index + items.size());
+        List<T> oldItems = new ArrayList<>(range);
+        for (int i = 0, size = items.size(); i < size; i++) {
+            range.set(i, items.get(i));
+        }
+        onDataSourceReplaced(index, items.size());
+        for (int i = 0, size = items.size(); i < size; i++) {
+            onItemReplaced(index + i, oldItems.get(i), items.get(i));
+        }
+        beginTransaction();
+        dispatchItemRangeChanged(index, items.size(), null);
+        commitTransaction();
+    }
+
+    /**
+     * 分页窗口淘汰[index, index + count)，原位替换为占位行，由{@link PagedSource}调用
+     */
+    final void evictItems(int page, int index, int count) {
+        checkDataValid(index);
+        checkDataValid(index + count - 1);
+        List<T> range = mDataSource.subList(index, index + count);
+        List<T> evictedItems = new ArrayList<>(range);
+        Collections.fill(range, null);
+        onDataSourceReplaced(index, count);
+        onItemsEvicted(page, index, evictedItems);
+        beginTransaction();
+        dispatchItemRangeChanged(index, count, null);
+        commitTransaction();
     }
 
     /**
@@ -133,8 +846,11 @@ public abstract class BaseRecyclerAdapter<T, V extends BaseHolder<? extends T, H
     public void addItems(List<? extends T> items) {
         int previousIndex = mDataSource.size();
         mDataSource.addAll(items);
-        notifyItemRangeInserted(previousIndex, items.size());
-        notifyItemRangeChanged(previousIndex, items.size());
+        onDataSourceChanged(previousIndex);
+        onItemsInserted(previousIndex, items);
+        beginTransaction();
+        dispatchItemRangeInserted(previousIndex, items.size());
+        commitTransaction();
     }
 
     /**
@@ -146,29 +862,46 @@ public abstract class BaseRecyclerAdapter<T, V extends BaseHolder<? extends T, H
     public void addItems(int index, List<? extends T> items) {
         checkDataValid(index);
         mDataSource.addAll(index, items);
-        notifyItemRangeInserted(index, items.size());
-        notifyItemRangeChanged(index, mDataSource.size() - index);
+        onDataSourceShifted(index, items.size());
+        onItemsInserted(index, items);
+        beginTransaction();
+        dispatchItemRangeInserted(index, items.size());
+        dispatchPositionShift(index + items.size());
+        commitTransaction();
     }
 
+    /**
+     * 刷新指定数据
+     * 未设置key提供者时按equals线性查找位置，O(n)；数据量大时设置{@link #setItemKeyProvider(ItemKeyProvider)}，
+     * 没有业务key可使用{@link IdentityItemKeyProvider}
+     *
+     * @param item
+     */
     public void changeItem(T item) {
-        int change = mDataSource.indexOf(item);
+        int change = indexOfItem(item);
         checkDataValid(change);
-        notifyItemChanged(change);
+        onItemReplaced(change, item, item);
+        beginTransaction();
+        dispatchItemRangeChanged(change, 1, null);
+        commitTransaction();
     }
 
     /**
      * 移除指定数据
+     * 查找位置同{@link #changeItem(Object)}，未设置key提供者时为equals线性查找
      *
      * @param item
      */
     public void removeItem(T item) {
-        int removedIndex = mDataSource.indexOf(item);
+        int removedIndex = indexOfItem(item);
         checkDataValid(removedIndex);
-        mDataSource.remove(item);
-        if (removedIndex != -1) {
-            notifyItemRemoved(removedIndex);
-            notifyItemRangeChanged(removedIndex, mDataSource.size() - removedIndex);
-        }
+        T removed = mDataSource.remove(removedIndex);
+        onDataSourceShifted(removedIndex, -1);
+        onItemsRemoved(removedIndex, Collections.singletonList(removed));
+        beginTransaction();
+        dispatchItemRangeRemoved(removedIndex, 1);
+        dispatchPositionShift(removedIndex);
+        commitTransaction();
     }
 
     /**
@@ -178,9 +911,13 @@ public abstract class BaseRecyclerAdapter<T, V extends BaseHolder<? extends T, H
      */
     public void removeItem(int index) {
         checkDataValid(index);
-        mDataSource.remove(index);
-        notifyItemRemoved(index);
-        notifyItemRangeChanged(index, mDataSource.size() - index);
+        T removed = mDataSource.remove(index);
+        onDataSourceShifted(index, -1);
+        onItemsRemoved(index, Collections.singletonList(removed));
+        beginTransaction();
+        dispatchItemRangeRemoved(index, 1);
+        dispatchPositionShift(index);
+        commitTransaction();
     }
 
     /**
@@ -201,13 +938,552 @@ public abstract class BaseRecyclerAdapter<T, V extends BaseHolder<? extends T, H
     public void removeItemsRange(int start, int end) {
         checkDataValid(start);
         checkDataValid(end);
-        List<T> removedItems = new ArrayList<>();
-        for (int i = start; i < end + 1; i++) {
-            removedItems.add(mDataSource.get(i));
+        List<T> range = mDataSource.subList(start, end + 1);
+        List<T> removedItems = new ArrayList<>(range);
+        // 按位置移除，removeAll会误删区间外相等的item（如占位行null）
+        range.clear();
+        onDataSourceShifted(start, -removedItems.size());
+        onItemsRemoved(start, removedItems);
+        beginTransaction();
+        dispatchItemRangeRemoved(start, end - start + 1);
+        dispatchPositionShift(start);
+        commitTransaction();
+    }
+
+    /**
+     * 排序模式：数据按比较器有序，通过addSortedItem(s)/updateSortedItem维护
+     * 1. 插入位置二分查找，比较次数O(log n)，相等的item按加入顺序排列
+     * 2. 更新后位置变化时通知move，而非尾部区间刷新
+     * 3. 批量插入时一次归并，每段连续插入的item合并为一次通知
+     * 4. 插入、更新、重排均不通知尾部position刷新（等同{@link #setLivePositionEnabled(boolean)}开启），
+     *    holder须通过{@link BaseHolder#getLivePosition()}获取位置
+     * 排序模式不支持占位行（分页数据源），也不要再按位置调用addItem(s)，否则破坏有序性
+     *
+     * @param comparator null退出排序模式；已有数据未按其有序时同步原位重排，见{@link #reorder(Comparator)}
+     */
+    public void setSortComparator(@Nullable Comparator<? super T> comparator) {
+        mSortComparator = comparator;
+        if (comparator == null || isSorted(mDataSource, comparator)) {
+            return;
+        }
+        reorder(comparator);
+    }
+
+    /**
+     * 原位重排：item集合不变，不回调onItemsReplacing，按key维护的状态（如选中态）保留
+     * 最长有序子序列中的item不动，其余item按最终位置依次move到位，移动次数最少；
+     * 需移动的item超过{@link #MAX_REORDER_MOVES}时改为整段刷新
+     */
+    private void reorder(final Comparator<? super T> comparator) {
+        final List<T> items = mDataSource;
+        int size = items.size();
+        // 最终位置 -> 原位置，对象排序为稳定排序，相等的item保持原顺序
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return comparator.compare(items.get(o1), items.get(o2));
+            }
+        });
+        // 当前顺序下各item的最终位置
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[order[i]] = i;
+        }
+        boolean[] stays = longestIncreasingSubsequence(rows);
+        int moves = 0;
+        for (boolean stay : stays) {
+            if (!stay) {
+                moves++;
+            }
+        }
+        List<T> sortedItems = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            sortedItems.add(items.get(order[i]));
+        }
+        for (int i = 0; i < size; i++) {
+            items.set(i, sortedItems.get(i));
+        }
+        onDataSourceChanged(0);
+        beginTransaction();
+        if (moves > MAX_REORDER_MOVES) {
+            dispatchItemRangeChanged(0, size, null);
+        } else {
+            // 按最终位置从小到大，将item移到最终位置前一个item之后，此前的item均已相对有序
+            int shiftFrom = size;
+            for (int target = 0; target < size; target++) {
+                if (stays[order[target]]) {
+                    continue;
+                }
+                int from = indexOf(rows, target);
+                System.arraycopy(rows, from + 1, rows, from, size - from - 1);
+                int to = target == 0 ? 0 : indexOf(rows, target - 1) + 1;
+                System.arraycopy(rows, to, rows, to + 1, size - to - 1);
+                rows[to] = target;
+                dispatchItemMoved(from, to);
+                shiftFrom = Math.min(shiftFrom, Math.min(from, to));
+            }
+            dispatchPositionShift(shiftFrom);
+        }
+        commitTransaction();
+    }
+
+    @Nullable
+    public Comparator<? super T> getSortComparator() {
+        return mSortComparator;
+    }
+
+    /**
+     * 排序模式下按序插入
+     *
+     * @return 插入的位置
+     */
+    public int addSortedItem(@NonNull T item) {
+        Comparator<? super T> comparator = requireSortComparator();
+        int index = insertionIndex(mDataSource, 0, mDataSource.size(), item, comparator);
+        if (index == mDataSource.size()) {
+            addItem(item);
+        } else {
+            addItem(index, item);
+        }
+        return index;
+    }
+
+    /**
+     * 排序模式下批量插入，与已有数据一次归并
+     * 每段连续插入的item合并为一次insert通知，全部排在末尾时等同addItems
+     *
+     * @param items 无需有序
+     */
+    public void addSortedItems(@NonNull List<? extends T> items) {
+        Comparator<? super T> comparator = requireSortComparator();
+        if (items.isEmpty()) {
+            return;
+        }
+        List<T> page = new ArrayList<>(items);
+        if (!isSorted(page, comparator)) {
+            Collections.sort(page, comparator);
+        }
+        int oldSize = mDataSource.size();
+        if (oldSize == 0 || comparator.compare(mDataSource.get(oldSize - 1), page.get(0)) <= 0) {
+            addItems(page);
+            return;
+        }
+        // 已有数据中不小于page首项的部分才参与归并
+        int mergeStart = insertionIndex(mDataSource, 0, oldSize, page.get(0), comparator);
+        List<T> tail = mDataSource.subList(mergeStart, oldSize);
+        List<T> merged = new ArrayList<>(tail.size() + page.size());
+        // 插入段：[起始位置, 数量]，位置为归并完成后的最终位置
+        int[] runs = new int[page.size() * 2];
+        int runCount = 0;
+        int i = 0;
+        int j = 0;
+        while (i < tail.size() || j < page.size()) {
+            if (j < page.size() && (i == tail.size() || comparator.compare(tail.get(i), page.get(j)) > 0)) {
+                int position = mergeStart + merged.size();
+                if (runCount > 0 && runs[runCount * 2 - 2] + runs[runCount * 2 - 1] == position) {
+                    runs[runCount * 2 - 1]++;
+                } else {
+                    runs[runCount * 2] = position;
+                    runs[runCount * 2 + 1] = 1;
+                    runCount++;
+                }
+                merged.add(page.get(j++));
+            } else {
+                merged.add(tail.get(i++));
+            }
+        }
+        tail.clear();
+        mDataSource.addAll(merged);
+        onDataSourceChanged(mergeStart);
+        beginTransaction();
+        // 按最终位置从前往后插入，每段插入时其前面的item均已就位
+        for (int r = 0; r < runCount; r++) {
+            int start = runs[r * 2];
+            int count = runs[r * 2 + 1];
+            onItemsInserted(start, mDataSource.subList(start, start + count));
+            dispatchItemRangeInserted(start, count);
+        }
+        dispatchPositionShift(runs[0] + runs[1]);
+        commitTransaction();
+    }
+
+    /**
+     * 排序模式下更新item：原位修改了排序字段，或替换为新数据
+     * 位置变化时通知move并刷新该item，位置不变时仅刷新
+     *
+     * @param index 更新前的位置
+     * @param item  新数据，原位修改时传入原对象
+     * @return 更新后的位置
+     */
+    public int updateSortedItem(int index, @NonNull T item) {
+        Comparator<? super T> comparator = requireSortComparator();
+        checkDataValid(index);
+        T oldItem = mDataSource.get(index);
+        boolean inPlace = (index == 0 || comparator.compare(mDataSource.get(index - 1), item) <= 0)
+                && (index == mDataSource.size() - 1 || comparator.compare(item, mDataSource.get(index + 1)) <= 0);
+        if (inPlace) {
+            mDataSource.set(index, item);
+            onDataSourceReplaced(index, 1);
+            onItemReplaced(index, oldItem, item);
+            beginTransaction();
+            dispatchItemRangeChanged(index, 1, null);
+            commitTransaction();
+            return index;
+        }
+        mDataSource.remove(index);
+        int newIndex = insertionIndex(mDataSource, 0, mDataSource.size(), item, comparator);
+        mDataSource.add(newIndex, item);
+        onDataSourceChanged(Math.min(index, newIndex));
+        onItemMoved(index, newIndex, oldItem, item);
+        beginTransaction();
+        dispatchItemMoved(index, newIndex);
+        dispatchItemRangeChanged(newIndex, 1, null);
+        // 两个位置之间的item前移或后移一位
+        dispatchPositionShift(Math.min(index, newIndex));
+        commitTransaction();
+        return newIndex;
+    }
+
+    /**
+     * 排序模式下更新item，item须为数据集中的对象（排序字段原位修改）
+     *
+     * @return 更新后的位置
+     */
+    public int updateSortedItem(@NonNull T item) {
+        int index = indexOfItem(item);
+        checkDataValid(index);
+        return updateSortedItem(index, item);
+    }
+
+    private Comparator<? super T> requireSortComparator() {
+        if (mSortComparator == null) {
+            throw new IllegalStateException("Sorted mode is not enabled, call setSortComparator first");
+        }
+        return mSortComparator;
+    }
+
+    /**
+     * 在[from, to)中二分查找插入位置：第一个大于item的位置，相等的item排在已有item之后
+     */
+    private static <T> int insertionIndex(List<T> items, int from, int to, T item, Comparator<? super T> comparator) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(items.get(mid), item) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 最长递增子序列，O(n log n)
+     *
+     * @param values 互不相同
+     * @return 各下标是否属于子序列
+     */
+    private static boolean[] longestIncreasingSubsequence(int[] values) {
+        int n = values.length;
+        // tails[l]：长度为l + 1的递增子序列中末尾值最小者的下标
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[tails[mid]] < values[i]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
         }
-        mDataSource.removeAll(removedItems);
-        notifyItemRangeRemoved(start, end - start + 1);
-        notifyItemRangeChanged(start, mDataSource.size() - start);
+        boolean[] result = new boolean[n];
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            result[i] = true;
+        }
+        return result;
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static <T> boolean isSorted(List<T> items, Comparator<? super T> comparator) {
+        for (int i = 1, size = items.size(); i < size; i++) {
+            if (comparator.compare(items.get(i - 1), items.get(i)) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 提交修改，可在任意线程调用
+     * 修改在下一帧开始时于主线程按提交顺序应用，同一帧内的所有修改合并为一个事务
+     */
+    public final void postMutation(@NonNull Mutation<T> mutation) {
+        mPendingMutations.offer(mutation);
+        if (mMutationFrameScheduled.compareAndSet(false, true)) {
+            if (ThreadUtils.isMainThread()) {
+                mScheduleMutationFrame.run();
+            } else {
+                ThreadUtils.postOnMainThread(mScheduleMutationFrame);
+            }
+        }
+    }
+
+    /**
+     * 任意线程添加一项数据，见{@link #postMutation(Mutation)}
+     */
+    public final void postAddItem(final T item) {
+        postMutation(new Mutation<T>() {
+            @Override
+            public void apply(@NonNull BaseRecyclerAdapter<T, ?, ?> adapter) {
+                adapter.addItem(item);
+            }
+        });
+    }
+
+    /**
+     * 任意线程添加数据集，见{@link #postMutation(Mutation)}
+     * 入队时拷贝，调用方之后修改或复用items不影响待应用的数据
+     */
+    public final void postAddItems(@NonNull List<? extends T> items) {
+        final List<T> snapshot = new ArrayList<>(items);
+        postMutation(new Mutation<T>() {
+            @Override
+            public void apply(@NonNull BaseRecyclerAdapter<T, ?, ?> adapter) {
+                adapter.addItems(snapshot);
+            }
+        });
+    }
+
+    /**
+     * 任意线程刷新指定数据，应用时数据已不存在则忽略
+     */
+    public final void postChangeItem(final T item) {
+        postMutation(new Mutation<T>() {
+            @Override
+            public void apply(@NonNull BaseRecyclerAdapter<T, ?, ?> adapter) {
+                if (adapter.indexOfItem(item) >= 0) {
+                    adapter.changeItem(item);
+                }
+            }
+        });
+    }
+
+    /**
+     * 任意线程移除指定数据，应用时数据已不存在则忽略
+     */
+    public final void postRemoveItem(final T item) {
+        postMutation(new Mutation<T>() {
+            @Override
+            public void apply(@NonNull BaseRecyclerAdapter<T, ?, ?> adapter) {
+                if (adapter.indexOfItem(item) >= 0) {
+                    adapter.removeItem(item);
+                }
+            }
+        });
+    }
+
+    /**
+     * 立即在主线程应用队列中的修改，无需等待下一帧（如页面退出前）
+     */
+    @MainThread
+    public final void flushPendingMutations() {
+        applyPendingMutations();
+    }
+
+    private void applyPendingMutations() {
+        mMutationFrameScheduled.set(false);
+        if (mPendingMutations.isEmpty()) {
+            return;
+        }
+        beginTransaction();
+        try {
+            Mutation<T> mutation;
+            while ((mutation = mPendingMutations.poll()) != null) {
+                mutation.apply(this);
+            }
+        } finally {
+            commitTransaction();
+        }
+    }
+
+    /**
+     * 开启批量修改事务，可嵌套
+     * 事务期间数据立即修改，通知经BatchingListUpdateCallback合并：只有相邻的同类区间（如连续插入）合并为一次通知，
+     * 下一条通知不相邻或类型不同时，上一条在事务期间即分发；尾部position刷新及整体刷新推迟到{@link #commitTransaction()}
+     * 注意：begin与commit须在主线程同一消息内成对调用，期间不能触发布局
+     */
+    public void beginTransaction() {
+        if (mTransactionDepth++ == 0) {
+            mPositionShiftFrom = Integer.MAX_VALUE;
+            mDataSetChangedPending = false;
+        }
+    }
+
+    /**
+     * 提交事务，分发尚未分发的最后一条合并通知，以及合并后的尾部position刷新或整体刷新
+     */
+    public void commitTransaction() {
+        if (mTransactionDepth <= 0) {
+            throw new IllegalStateException("commitTransaction() without beginTransaction()");
+        }
+        if (--mTransactionDepth > 0) {
+            return;
+        }
+        mBatchingCallback.dispatchLastEvent();
+        if (mDataSetChangedPending) {
+            mDataSetChangedPending = false;
+            mPositionShiftFrom = Integer.MAX_VALUE;
+            notifyDataSetChanged();
+            return;
+        }
+        int itemCount = getItemCount();
+        if (!mLivePositionEnabled && mSortComparator == null && mPositionShiftFrom < itemCount) {
+            // 合并后的尾部位置变化，仅通知一次
+            notifyItemRangeChanged(mPositionShiftFrom, itemCount - mPositionShiftFrom);
+        }
+        mPositionShiftFrom = Integer.MAX_VALUE;
+    }
+
+    public boolean isInTransaction() {
+        return mTransactionDepth > 0;
+    }
+
+    /**
+     * 实时位置模式
+     * 开启后，插入／删除不再通知尾部所有item刷新position，holder须通过{@link BaseHolder#getLivePosition()}获取位置
+     *
+     * @param enabled 默认关闭
+     */
+    public void setLivePositionEnabled(boolean enabled) {
+        mLivePositionEnabled = enabled;
+    }
+
+    public boolean isLivePositionEnabled() {
+        return mLivePositionEnabled;
+    }
+
+    /**
+     * 以下dispatch方法供子类修改mDataSource后通知使用，事务期间自动合并
+     * 增删移不会自动刷新尾部position，按需调用{@link #dispatchPositionShift(int)}
+     */
+    protected final void dispatchItemRangeInserted(int position, int count) {
+        if (count <= 0) {
+            return;
+        }
+        if (mDataSetChangedPending) {
+            return;
+        }
+        beginTransaction();
+        mBatchingCallback.onInserted(position, count);
+        commitTransaction();
+    }
+
+    protected final void dispatchItemRangeRemoved(int position, int count) {
+        if (count <= 0) {
+            return;
+        }
+        if (mDataSetChangedPending) {
+            return;
+        }
+        beginTransaction();
+        mBatchingCallback.onRemoved(position, count);
+        commitTransaction();
+    }
+
+    protected final void dispatchItemMoved(int fromPosition, int toPosition) {
+        if (fromPosition == toPosition || mDataSetChangedPending) {
+            return;
+        }
+        beginTransaction();
+        mBatchingCallback.onMoved(fromPosition, toPosition);
+        commitTransaction();
+    }
+
+    protected final void dispatchItemRangeChanged(int position, int count, @Nullable Object payload) {
+        if (count <= 0) {
+            return;
+        }
+        if (mDataSetChangedPending) {
+            return;
+        }
+        beginTransaction();
+        mBatchingCallback.onChanged(position, count, payload);
+        commitTransaction();
+    }
+
+    /**
+     * 以{@link ItemPayload} flag局部刷新，同一item排队的多个flag在绑定时合并为一个mask
+     * 单flag使用共享payload实例，不产生分配
+     *
+     * @param payloadMask ItemPayload中的flag组合，含业务自定义flag
+     */
+    public final void notifyItemRangePayload(int position, int count, int payloadMask) {
+        if (payloadMask == 0) {
+            return;
+        }
+        beginTransaction();
+        int remaining = payloadMask;
+        while (remaining != 0) {
+            int flag = Integer.lowestOneBit(remaining);
+            dispatchItemRangeChanged(position, count, ItemPayload.of(flag));
+            remaining &= ~flag;
+        }
+        commitTransaction();
+    }
+
+    /**
+     * 记录position发生变化的起始位置，事务提交时统一刷新尾部（实时位置模式、排序模式下忽略）
+     *
+     * @param fromPosition 修改完成后，位置发生变化的第一个item
+     */
+    protected final void dispatchPositionShift(int fromPosition) {
+        beginTransaction();
+        mPositionShiftFrom = Math.min(mPositionShiftFrom, fromPosition);
+        commitTransaction();
+    }
+
+    protected final void dispatchDataSetChanged() {
+        beginTransaction();
+        mDataSetChangedPending = true;
+        commitTransaction();
+    }
+
+    /**
+     * 事务期间的更新回调，diff结果等可分发至此
+     */
+    protected final ListUpdateCallback getUpdateCallback() {
+        return mTransactionCallback;
+    }
+
+    /**
+     * 跨线程提交的修改，在主线程事务中执行
+     */
+    public interface Mutation<T> {
+        void apply(@NonNull BaseRecyclerAdapter<T, ?, ?> adapter);
     }
 
     /**
@@ -0,0 +1,405 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.shendawei.recycler.library.utils.FenwickTree;
+import com.shendawei.recycler.library.utils.LongIntMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 组合adapter：按顺序拼接多个BaseRecyclerAdapter（如header样式adapter + 多选内容adapter + footer），各自维护数据
+ *
+ * 原理
+ * 1. 各子adapter的item数量存储在树状数组中，全局position -> (子adapter, 本地position)映射O(log n)
+ * 2. viewType按(子adapter, 本地viewType)从进程内唯一的区间分配，多个组合共用一个pool时不会冲突；
+ *    加入共享pool的子adapter直接使用注册表分配的共享type，不同组合间可复用holder；创建holder时还原为本地viewType交给子adapter
+ * 3. 监听子adapter的通知，加上偏移量后转发；一个子adapter的修改不会影响其他子adapter的item
+ * 4. BaseHolder.getLivePosition()在组合中返回子adapter内的本地位置
+ * 5. attach到RecyclerView前，stable id跟随子adapter：全部子adapter开启时组合才开启，
+ *    子adapter的id可能重复，按(子adapter, 本地id)分配组合内唯一的id；映射超过子adapter数量的2倍时按现有item清理
+ *
+ * @author shendawei
+ * @classname CompositeAdapter
+ * @date 4/4/23 9:12 PM
+ */
+public class CompositeAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+    /**
+     * 组合分配的viewType起始值，高于adapter本地type及注册表的共享type
+     */
+    private static final int VIEW_TYPE_START = 0x40000000;
+    private static final AtomicInteger sNextViewType = new AtomicInteger(VIEW_TYPE_START);
+    private static final int MIN_STABLE_ID_CAPACITY = 16;
+
+    private final List<ChildAdapter> mChildren = new ArrayList<>();
+    /**
+     * 各子adapter的item数量，下标与mChildren一致
+     */
+    private final FenwickTree mChildSizes = new FenwickTree();
+    /**
+     * 全局viewType -> 所属子adapter及本地viewType
+     */
+    private final SparseArray<ChildAdapter> mViewTypeOwners = new SparseArray<>();
+    private final SparseIntArray mLocalViewTypes = new SparseIntArray();
+    private int mNextStableId;
+
+    public CompositeAdapter() {
+    }
+
+    public CompositeAdapter(@NonNull List<? extends BaseRecyclerAdapter<?, ?, ?>> adapters) {
+        for (BaseRecyclerAdapter<?, ?, ?> adapter : adapters) {
+            addAdapter(adapter);
+        }
+    }
+
+    public void addAdapter(@NonNull BaseRecyclerAdapter<?, ?, ?> adapter) {
+        addAdapter(mChildren.size(), adapter);
+    }
+
+    public void addAdapter(int index, @NonNull BaseRecyclerAdapter<?, ?, ?> adapter) {
+        if (indexOfAdapter(adapter) >= 0) {
+            throw new IllegalArgumentException("Adapter has already been added: " + adapter);
+        }
+        if (hasObservers() && hasStableIds() && !adapter.hasStableIds()) {
+            throw new IllegalArgumentException("Composite adapter has stable ids, child adapter must have stable ids too: " + adapter);
+        }
+        ChildAdapter child = new ChildAdapter(adapter);
+        int count = adapter.getItemCount();
+        mChildren.add(index, child);
+        mChildSizes.insert(index, count);
+        updateHasStableIds();
+        adapter.registerAdapterDataObserver(child);
+        notifyItemRangeInserted(mChildSizes.prefixSum(index), count);
+    }
+
+    public boolean removeAdapter(@NonNull BaseRecyclerAdapter<?, ?, ?> adapter) {
+        int index = indexOfAdapter(adapter);
+        if (index < 0) {
+            return false;
+        }
+        ChildAdapter child = mChildren.remove(index);
+        int start = mChildSizes.prefixSum(index);
+        int count = mChildSizes.get(index);
+        mChildSizes.remove(index);
+        adapter.unregisterAdapterDataObserver(child);
+        updateHasStableIds();
+        for (int i = mViewTypeOwners.size() - 1; i >= 0; i--) {
+            if (mViewTypeOwners.valueAt(i) == child) {
+                transferViewType(i);
+            }
+        }
+        notifyItemRangeRemoved(start, count);
+        return true;
+    }
+
+    @NonNull
+    public List<BaseRecyclerAdapter<?, ?, ?>> getAdapters() {
+        List<BaseRecyclerAdapter<?, ?, ?>> adapters = new ArrayList<>(mChildren.size());
+        for (ChildAdapter child : mChildren) {
+            adapters.add(child.mAdapter);
+        }
+        return Collections.unmodifiableList(adapters);
+    }
+
+    /**
+     * @return 全局position所属的子adapter
+     */
+    @NonNull
+    public BaseRecyclerAdapter<?, ?, ?> getAdapterForPosition(int position) {
+        return mChildren.get(childIndexOf(position)).mAdapter;
+    }
+
+    /**
+     * 全局position -> 子adapter内的本地position，O(log n)
+     */
+    public int getLocalPosition(int position) {
+        return position - mChildSizes.prefixSum(childIndexOf(position));
+    }
+
+    /**
+     * 子adapter内的本地position -> 全局position，O(log n)
+     *
+     * @return adapter不在组合中时返回RecyclerView.NO_POSITION
+     */
+    public int getGlobalPosition(@NonNull BaseRecyclerAdapter<?, ?, ?> adapter, int localPosition) {
+        int index = indexOfAdapter(adapter);
+        if (index < 0) {
+            return RecyclerView.NO_POSITION;
+        }
+        return mChildSizes.prefixSum(index) + localPosition;
+    }
+
+    @Override
+    public int getItemCount() {
+        return mChildSizes.total();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        int index = childIndexOf(position);
+        ChildAdapter child = mChildren.get(index);
+        int localType = child.mAdapter.getItemViewType(position - mChildSizes.prefixSum(index));
+        int viewType = child.mViewTypes.get(localType, RecyclerView.INVALID_TYPE);
+        if (viewType == RecyclerView.INVALID_TYPE) {
+            // 共享type由注册表按Factory分配，相同type的holder可由任一子adapter创建
+            viewType = child.mAdapter.isSharedPoolJoined() ? localType : sNextViewType.getAndIncrement();
+            child.mViewTypes.put(localType, viewType);
+            if (mViewTypeOwners.indexOfKey(viewType) < 0) {
+                mViewTypeOwners.put(viewType, child);
+                mLocalViewTypes.put(viewType, localType);
+            }
+        }
+        return viewType;
+    }
+
+    /**
+     * 移除子adapter时，其创建的共享type转交给仍使用该type的子adapter，否则释放
+     */
+    private void transferViewType(int ownerIndex) {
+        int viewType = mViewTypeOwners.keyAt(ownerIndex);
+        for (ChildAdapter other : mChildren) {
+            int index = other.mViewTypes.indexOfValue(viewType);
+            if (index >= 0) {
+                mViewTypeOwners.setValueAt(ownerIndex, other);
+                mLocalViewTypes.put(viewType, other.mViewTypes.keyAt(index));
+                return;
+            }
+        }
+        mLocalViewTypes.delete(viewType);
+        mViewTypeOwners.removeAt(ownerIndex);
+    }
+
+    /**
+     * 子adapter的stable id映射为组合内唯一的id
+     * 映射随出现过的本地id增长，超过子adapter item数量的2倍时只保留现有item的映射，移除子adapter时整体释放
+     */
+    @Override
+    public long getItemId(int position) {
+        if (!hasStableIds()) {
+            return RecyclerView.NO_ID;
+        }
+        int index = childIndexOf(position);
+        ChildAdapter child = mChildren.get(index);
+        long localId = child.mAdapter.getItemId(position - mChildSizes.prefixSum(index));
+        if (localId == RecyclerView.NO_ID) {
+            return RecyclerView.NO_ID;
+        }
+        int id = child.mStableIds.get(localId, -1);
+        if (id == -1) {
+            if (child.mStableIds.size() >= Math.max(MIN_STABLE_ID_CAPACITY, child.mAdapter.getItemCount() * 2)) {
+                child.pruneStableIds();
+            }
+            id = mNextStableId++;
+            child.mStableIds.put(localId, id);
+        }
+        return id;
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        ChildAdapter child = mViewTypeOwners.get(viewType);
+        if (child == null) {
+            throw new RuntimeException("No child adapter found with type equals " + viewType);
+        }
+        return child.adapter().onCreateViewHolder(parent, mLocalViewTypes.get(viewType));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        onBindViewHolder(holder, position, Collections.emptyList());
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        int index = childIndexOf(position);
+        if (holder instanceof BaseHolder) {
+            // 子adapter绑定之前设置，绑定过程中holder即可将adapter position换算为本地位置
+            ((BaseHolder<?, ?>) holder).mCompositeAdapter = this;
+        }
+        mChildren.get(index).adapter().onBindViewHolder(holder, position - mChildSizes.prefixSum(index), payloads);
+    }
+
+    /**
+     * 回收时解除关联，进入共享pool的holder被其他adapter复用时不再按本组合换算位置
+     */
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        ChildAdapter child = mViewTypeOwners.get(holder.getItemViewType());
+        if (child != null) {
+            child.adapter().onViewRecycled(holder);
+        }
+        if (holder instanceof BaseHolder && ((BaseHolder<?, ?>) holder).mCompositeAdapter == this) {
+            ((BaseHolder<?, ?>) holder).mCompositeAdapter = null;
+        }
+    }
+
+    @Override
+    public boolean onFailedToRecycleView(@NonNull RecyclerView.ViewHolder holder) {
+        ChildAdapter child = mViewTypeOwners.get(holder.getItemViewType());
+        return child != null && child.adapter().onFailedToRecycleView(holder);
+    }
+
+    @Override
+    public void onViewAttachedToWindow(@NonNull RecyclerView.ViewHolder holder) {
+        ChildAdapter child = mViewTypeOwners.get(holder.getItemViewType());
+        if (child != null) {
+            child.adapter().onViewAttachedToWindow(holder);
+        }
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(@NonNull RecyclerView.ViewHolder holder) {
+        ChildAdapter child = mViewTypeOwners.get(holder.getItemViewType());
+        if (child != null) {
+            child.adapter().onViewDetachedFromWindow(holder);
+        }
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        for (ChildAdapter child : mChildren) {
+            child.mAdapter.onAttachedToRecyclerView(recyclerView);
+        }
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        for (ChildAdapter child : mChildren) {
+            child.mAdapter.onDetachedFromRecyclerView(recyclerView);
+        }
+    }
+
+    /**
+     * attach到RecyclerView后不能再切换stable id，此时由addAdapter校验子adapter
+     */
+    private void updateHasStableIds() {
+        if (hasObservers()) {
+            return;
+        }
+        boolean stableIds = !mChildren.isEmpty();
+        for (ChildAdapter child : mChildren) {
+            stableIds &= child.mAdapter.hasStableIds();
+        }
+        if (stableIds != hasStableIds()) {
+            setHasStableIds(stableIds);
+        }
+    }
+
+    private int childIndexOf(int position) {
+        if (position < 0 || position >= getItemCount()) {
+            throw new IndexOutOfBoundsException("position = " + position + ", itemCount = " + getItemCount());
+        }
+        return mChildSizes.indexOf(position);
+    }
+
+    private int indexOfAdapter(BaseRecyclerAdapter<?, ?, ?> adapter) {
+        for (int i = 0, size = mChildren.size(); i < size; i++) {
+            if (mChildren.get(i).mAdapter == adapter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 子adapter：本地viewType映射，并将其通知加上偏移量后转发
+     */
+    private final class ChildAdapter extends RecyclerView.AdapterDataObserver {
+        final BaseRecyclerAdapter<?, ?, ?> mAdapter;
+        /**
+         * 本地viewType -> 全局viewType
+         */
+        final SparseIntArray mViewTypes = new SparseIntArray();
+        /**
+         * 本地stable id -> 组合内的id
+         */
+        LongIntMap mStableIds = new LongIntMap();
+
+        ChildAdapter(BaseRecyclerAdapter<?, ?, ?> adapter) {
+            mAdapter = adapter;
+        }
+
+        @SuppressWarnings("unchecked")
+        RecyclerView.Adapter<RecyclerView.ViewHolder> adapter() {
+            return (RecyclerView.Adapter<RecyclerView.ViewHolder>) (RecyclerView.Adapter<?>) mAdapter;
+        }
+
+        private int index() {
+            return mChildren.indexOf(this);
+        }
+
+        /**
+         * 只保留现有item的id映射，已删除、已替换的item的映射释放
+         */
+        void pruneStableIds() {
+            int count = mAdapter.getItemCount();
+            LongIntMap stableIds = new LongIntMap(count);
+            for (int i = 0; i < count; i++) {
+                long localId = mAdapter.getItemId(i);
+                int id = mStableIds.get(localId, -1);
+                if (id != -1) {
+                    stableIds.put(localId, id);
+                }
+            }
+            mStableIds = stableIds;
+        }
+
+        /**
+         * 子adapter整体刷新：仅刷新该子adapter的区间，按数量差异补充插入／移除
+         */
+        @Override
+        public void onChanged() {
+            int index = index();
+            int start = mChildSizes.prefixSum(index);
+            int oldCount = mChildSizes.get(index);
+            int newCount = mAdapter.getItemCount();
+            mChildSizes.set(index, newCount);
+            notifyItemRangeChanged(start, Math.min(oldCount, newCount));
+            if (newCount > oldCount) {
+                notifyItemRangeInserted(start + oldCount, newCount - oldCount);
+            } else if (oldCount > newCount) {
+                notifyItemRangeRemoved(start + newCount, oldCount - newCount);
+            }
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            notifyItemRangeChanged(mChildSizes.prefixSum(index()) + positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            notifyItemRangeChanged(mChildSizes.prefixSum(index()) + positionStart, itemCount, payload);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            int index = index();
+            mChildSizes.add(index, itemCount);
+            notifyItemRangeInserted(mChildSizes.prefixSum(index) + positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            int index = index();
+            mChildSizes.add(index, -itemCount);
+            notifyItemRangeRemoved(mChildSizes.prefixSum(index) + positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            int start = mChildSizes.prefixSum(index());
+            notifyItemMoved(start + fromPosition, start + toPosition);
+        }
+    }
+}
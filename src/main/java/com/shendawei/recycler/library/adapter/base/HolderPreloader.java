@@ -0,0 +1,130 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import android.util.Log;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.shendawei.recycler.library.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * holder预加载
+ * 按Factory声明的{@link BaseHolder.Factory#getWarmUpCount()}，在首次布局前于后台线程inflate itemView，
+ * 回到主线程创建holder并放入RecyclerView的RecycledViewPool，首次滑动时直接复用
+ *
+ * 原理
+ * 1. 后台线程仅做inflate；holder创建（findViewById、绑定监听等）在主线程，按条post分散到多个消息，避免单帧过长
+ * 2. 主线程通过adapter.createViewHolder创建holder，Factory优先消费预加载的itemView，viewType由RecyclerView正常设置
+ * 3. Factory声明{@link BaseHolder.Factory#isAsyncInflatable()}为false，或后台inflate抛出异常时，回退为主线程同步inflate
+ *    后台使用cloneInContext得到的独立LayoutInflater，不与主线程inflate争用同一把锁
+ * 4. 按预加载数量放大pool中对应viewType的容量，避免预加载的holder被丢弃；只升不降，
+ *    共享pool不会低于{@link RecycledPoolRegistry}按Factory声明设置的容量
+ *
+ * 使用：setAdapter之后、首次布局前调用 HolderPreloader.preload(recyclerView, adapter)
+ *
+ * @author shendawei
+ * @classname HolderPreloader
+ * @date 3/20/23 9:37 PM
+ */
+public class HolderPreloader {
+    private static final String TAG = "HolderPreloader";
+    private static final int DEFAULT_MAX_SCRAP = RecycledPoolRegistry.DEFAULT_MAX_SCRAP;
+
+    @MainThread
+    public static void preload(@NonNull RecyclerView recyclerView, @NonNull BaseRecyclerAdapter<?, ?, ?> adapter) {
+        preload(recyclerView, adapter, ThreadUtils.getBackgroundExecutor());
+    }
+
+    @MainThread
+    public static void preload(@NonNull final RecyclerView recyclerView, @NonNull final BaseRecyclerAdapter<?, ?, ?> adapter,
+                               @NonNull Executor executor) {
+        SparseArray<? extends BaseHolder.Factory<?, ?>> factories = adapter.mFactories;
+        for (int i = 0; i < factories.size(); i++) {
+            final int viewType = adapter.mapViewType(factories.keyAt(i));
+            final BaseHolder.Factory<?, ?> factory = factories.valueAt(i);
+            final int count = factory.getWarmUpCount();
+            if (count <= 0) {
+                continue;
+            }
+            raiseMaxRecycledViews(recyclerView, adapter, viewType, count);
+            if (!factory.isAsyncInflatable()) {
+                for (int n = 0; n < count; n++) {
+                    postCreateHolder(recyclerView, adapter, factory, viewType, null);
+                }
+                continue;
+            }
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // 独立的inflater实例：inflate按实例加锁，共享实例会阻塞主线程同一Context下的inflate
+                    LayoutInflater inflater = LayoutInflater.from(recyclerView.getContext())
+                            .cloneInContext(recyclerView.getContext());
+                    List<View> views = new ArrayList<>(count);
+                    try {
+                        for (int n = 0; n < count; n++) {
+                            views.add(inflater.inflate(factory.getLayoutId(), recyclerView, false));
+                        }
+                    } catch (RuntimeException e) {
+                        // 布局不支持后台inflate，剩余数量回退为主线程同步inflate
+                        Log.w(TAG, "async inflate failed, fallback to main thread, viewType = " + viewType, e);
+                    }
+                    for (int n = 0; n < count; n++) {
+                        postCreateHolder(recyclerView, adapter, factory, viewType, n < views.size() ? views.get(n) : null);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 按预加载数量提高pool容量，只升不降
+     * 共享pool与注册表记录的容量比较；其他pool的容量无法读取，仅在超过默认容量时设置
+     */
+    private static void raiseMaxRecycledViews(RecyclerView recyclerView, BaseRecyclerAdapter<?, ?, ?> adapter,
+                                              int viewType, int count) {
+        RecyclerView.RecycledViewPool pool = recyclerView.getRecycledViewPool();
+        RecycledPoolRegistry registry = adapter.getSharedPoolRegistry();
+        if (registry != null && registry.getPool() == pool) {
+            registry.ensureMaxRecycledViews(viewType, count);
+        } else if (count > DEFAULT_MAX_SCRAP) {
+            pool.setMaxRecycledViews(viewType, count);
+        }
+    }
+
+    /**
+     * 主线程创建holder并放入pool
+     *
+     * @param itemView 预加载的itemView，null时同步inflate
+     */
+    private static void postCreateHolder(final RecyclerView recyclerView, final BaseRecyclerAdapter<?, ?, ?> adapter,
+                                         final BaseHolder.Factory<?, ?> factory, final int viewType, final View itemView) {
+        ThreadUtils.postOnMainThread(new Runnable() {
+            @Override
+            public void run() {
+                if (recyclerView.getAdapter() != adapter) {
+                    return;
+                }
+                RecyclerView.RecycledViewPool pool = recyclerView.getRecycledViewPool();
+                if (pool.getRecycledViewCount(viewType) >= Math.max(DEFAULT_MAX_SCRAP, factory.getWarmUpCount())) {
+                    return;
+                }
+                if (itemView != null) {
+                    factory.offerPreInflatedView(itemView);
+                }
+                pool.putRecycledView(adapter.createViewHolder(recyclerView, viewType));
+                if (itemView != null) {
+                    // adapter未经Factory创建holder时，预加载的itemView未被消费，丢弃避免滞留
+                    factory.discardPreInflatedView(itemView);
+                }
+            }
+        });
+    }
+}
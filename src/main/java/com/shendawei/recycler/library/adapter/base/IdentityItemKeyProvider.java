@@ -0,0 +1,60 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import androidx.annotation.NonNull;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * 按对象引用分配key，未提供业务key时使用
+ * 同一对象在集合中存续期间key不变；对象移除后须调用{@link #forget(Object)}释放
+ *
+ * @author shendawei
+ * @classname IdentityItemKeyProvider
+ * @date 3/9/23 10:05 PM
+ */
+public class IdentityItemKeyProvider<T> implements ItemKeyProvider<T> {
+    private final IdentityHashMap<T, Long> mKeys = new IdentityHashMap<>();
+    private long mNextKey = 1;
+
+    @Override
+    public long getItemKey(@NonNull T item) {
+        Long key = mKeys.get(item);
+        if (key == null) {
+            key = mNextKey++;
+            mKeys.put(item, key);
+        }
+        return key;
+    }
+
+    /**
+     * 是否已为该对象分配key，不分配新key
+     */
+    public boolean hasKey(@NonNull T item) {
+        return mKeys.containsKey(item);
+    }
+
+    public void forget(@NonNull T item) {
+        mKeys.remove(item);
+    }
+
+    /**
+     * 只保留items中对象的key，其余释放
+     */
+    public void retain(@NonNull List<? extends T> items) {
+        IdentityHashMap<T, Long> retained = new IdentityHashMap<>(items.size());
+        for (int i = 0, size = items.size(); i < size; i++) {
+            T item = items.get(i);
+            Long key = item != null ? mKeys.get(item) : null;
+            if (key != null) {
+                retained.put(item, key);
+            }
+        }
+        mKeys.clear();
+        mKeys.putAll(retained);
+    }
+
+    public void clear() {
+        mKeys.clear();
+    }
+}
@@ -0,0 +1,232 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import android.text.TextUtils;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.shendawei.recycler.library.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 过滤／搜索，adapter展示的是全量数据按当前查询条件过滤后的结果
+ *
+ * 原理
+ * 1. 全量数据由ItemFilter持有，匹配与diff计算均在后台线程执行，主线程只发布结果
+ * 2. 每次查询自增generation，后台匹配过程中定期检查，过期查询提前结束，结果也不会发布
+ * 3. 新查询是上一次已发布查询的细化（{@link Matcher#isRefinement(CharSequence, CharSequence)}，如在末尾追加字符）时，
+ *    只在上一次的结果中继续筛选，无需遍历全量数据
+ * 4. 结果通过diff发布（未设置ItemDiffCallback时按引用／equals比较），只刷新变化的item；
+ *    被过滤掉的item仍属于数据集，选中态等状态得以保留（见{@link BaseRecyclerAdapter#onItemsFiltered(List, List)}）
+ *
+ * 过滤模式下全量数据通过{@link #setSource(List)}更新，不要再直接调用adapter的增删方法
+ *
+ * 使用
+ * ItemFilter<T> filter = new ItemFilter<>(adapter, matcher); filter.setSource(items); filter.filter(query);
+ *
+ * @author shendawei
+ * @classname ItemFilter
+ * @date 4/8/23 3:40 PM
+ */
+public class ItemFilter<T> {
+    /**
+     * 后台匹配时每处理该数量的item检查一次查询是否过期
+     */
+    private static final int CANCEL_CHECK_INTERVAL = 128;
+
+    private final BaseRecyclerAdapter<T, ?, ?> mAdapter;
+    private final Matcher<? super T> mMatcher;
+    private Executor mExecutor;
+    private Listener mListener;
+    /**
+     * 全量数据，只整体替换不修改，可被后台线程安全读取
+     */
+    private List<T> mSource = Collections.emptyList();
+    private int mSourceVersion;
+    @Nullable
+    private CharSequence mQuery;
+    /**
+     * 最近一次发布的结果及其查询条件、数据版本，用于细化查询时缩小匹配范围
+     */
+    private List<T> mPublishedItems;
+    @Nullable
+    private CharSequence mPublishedQuery;
+    private int mPublishedSourceVersion = -1;
+    private final AtomicInteger mGeneration = new AtomicInteger();
+    private boolean mFiltering;
+
+    public ItemFilter(@NonNull BaseRecyclerAdapter<T, ?, ?> adapter, @NonNull Matcher<? super T> matcher) {
+        mAdapter = adapter;
+        mMatcher = matcher;
+    }
+
+    /**
+     * 指定匹配及diff计算线程池，默认{@link ThreadUtils#getBackgroundExecutor()}
+     */
+    public void setExecutor(@Nullable Executor executor) {
+        mExecutor = executor;
+    }
+
+    public void setListener(@Nullable Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * 设置全量数据，按当前查询条件重新过滤
+     */
+    @MainThread
+    public void setSource(@Nullable List<? extends T> items) {
+        mSource = items == null || items.isEmpty() ? Collections.<T>emptyList() : new ArrayList<T>(items);
+        mSourceVersion++;
+        submit();
+    }
+
+    @NonNull
+    public List<T> getSource() {
+        return Collections.unmodifiableList(mSource);
+    }
+
+    /**
+     * 按查询条件过滤，为空时展示全量数据
+     * 查询条件变化前的过滤若未完成则取消
+     */
+    @MainThread
+    public void filter(@Nullable CharSequence query) {
+        query = TextUtils.isEmpty(query) ? null : query.toString();
+        if (TextUtils.equals(query, mQuery) && (mFiltering || mPublishedSourceVersion == mSourceVersion)) {
+            return;
+        }
+        mQuery = query;
+        submit();
+    }
+
+    @Nullable
+    public CharSequence getQuery() {
+        return mQuery;
+    }
+
+    /**
+     * 是否有未发布的过滤
+     */
+    public boolean isFiltering() {
+        return mFiltering;
+    }
+
+    private void submit() {
+        final int generation = mGeneration.incrementAndGet();
+        final CharSequence query = mQuery;
+        final List<T> candidates;
+        final boolean narrowing;
+        if (query == null) {
+            candidates = mSource;
+            narrowing = false;
+        } else if (mPublishedItems != null && mPublishedQuery != null && mPublishedSourceVersion == mSourceVersion
+                && mMatcher.isRefinement(mPublishedQuery, query)) {
+            // 细化查询，只在上一次的结果中筛选
+            candidates = mPublishedItems;
+            narrowing = true;
+        } else {
+            candidates = mSource;
+            narrowing = false;
+        }
+        final List<T> source = mSource;
+        final int sourceVersion = mSourceVersion;
+        final List<T> oldItems = new ArrayList<>(mAdapter.mDataSource);
+        final int dataVersion = mAdapter.getDataVersion();
+        final DiffUtil.ItemCallback<T> itemCallback = mAdapter.mItemDiffCallback != null
+                ? mAdapter.mItemDiffCallback : new EqualsItemCallback<T>();
+        mFiltering = true;
+        Executor executor = mExecutor != null ? mExecutor : ThreadUtils.getBackgroundExecutor();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final List<T> newItems;
+                if (query == null) {
+                    newItems = candidates;
+                } else {
+                    newItems = new ArrayList<>(narrowing ? candidates.size() : 16);
+                    for (int i = 0, size = candidates.size(); i < size; i++) {
+                        if (i % CANCEL_CHECK_INTERVAL == 0 && mGeneration.get() != generation) {
+                            return;
+                        }
+                        T item = candidates.get(i);
+                        if (item != null && mMatcher.matches(item, query)) {
+                            newItems.add(item);
+                        }
+                    }
+                }
+                if (mGeneration.get() != generation) {
+                    return;
+                }
+                final DiffUtil.DiffResult result = DiffUtil.calculateDiff(
+                        BaseRecyclerAdapter.createDiffCallback(oldItems, newItems, itemCallback));
+                ThreadUtils.postOnMainThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (mGeneration.get() != generation) {
+                            // 已有更新的查询，丢弃
+                            return;
+                        }
+                        mFiltering = false;
+                        mPublishedItems = newItems;
+                        mPublishedQuery = query;
+                        mPublishedSourceVersion = sourceVersion;
+                        mAdapter.publishFilteredItems(newItems, source, result, dataVersion);
+                        if (mListener != null) {
+                            mListener.onFilterComplete(query, newItems.size());
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 匹配规则，在后台线程调用，不要访问View或adapter
+     */
+    public abstract static class Matcher<T> {
+
+        public abstract boolean matches(@NonNull T item, @NonNull CharSequence query);
+
+        /**
+         * query是否为previous的细化：匹配query的item一定匹配previous，此时只需在previous的结果中筛选
+         *
+         * @return 默认query包含previous时成立，适用于子串匹配；其他匹配规则需覆写
+         */
+        public boolean isRefinement(@NonNull CharSequence previous, @NonNull CharSequence query) {
+            return query.length() >= previous.length() && query.toString().contains(previous);
+        }
+    }
+
+    public interface Listener {
+        /**
+         * 过滤结果已发布
+         *
+         * @param query 查询条件，null表示未过滤
+         * @param count 结果数量
+         */
+        void onFilterComplete(@Nullable CharSequence query, int count);
+    }
+
+    /**
+     * adapter未设置ItemDiffCallback时使用：equals视为同一item，非同一对象时重新绑定
+     */
+    private static class EqualsItemCallback<T> extends DiffUtil.ItemCallback<T> {
+        @Override
+        public boolean areItemsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+            return oldItem == newItem || oldItem.equals(newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+            return oldItem == newItem;
+        }
+    }
+}
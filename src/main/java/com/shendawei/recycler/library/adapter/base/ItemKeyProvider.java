@@ -0,0 +1,15 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import androidx.annotation.NonNull;
+
+/**
+ * item唯一标识（long）提供者
+ * 同一数据集内key须唯一且不随位置变化，用于stable id及按key查找位置
+ *
+ * @author shendawei
+ * @classname ItemKeyProvider
+ * @date 3/8/23 9:21 PM
+ */
+public interface ItemKeyProvider<T> {
+    long getItemKey(@NonNull T item);
+}
@@ -0,0 +1,73 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * 局部刷新payload，以bitmask表示item变化的方面
+ * 同一item排队的多个payload合并为一个mask，通过{@link BaseHolder#bindData(Object, int, int)}一次重新绑定
+ * 单flag实例预先创建并共享，分发时不产生分配
+ * 业务自定义flag使用1 << 8及以上的位
+ *
+ * @author shendawei
+ * @classname ItemPayload
+ * @date 3/30/23 10:02 PM
+ */
+public class ItemPayload {
+    /**
+     * 内容变化，需完整重新绑定
+     */
+    public static final int FLAG_CONTENT = 1;
+    /**
+     * 选中态变化
+     */
+    public static final int FLAG_SELECTION = 1 << 1;
+    /**
+     * 样式变化：背景、内边距
+     */
+    public static final int FLAG_STYLE_BACKGROUND = 1 << 2;
+    public static final int FLAG_STYLE_PADDING = 1 << 3;
+
+    private static final ItemPayload[] SINGLE_FLAG_PAYLOADS = new ItemPayload[32];
+
+    static {
+        for (int i = 0; i < SINGLE_FLAG_PAYLOADS.length; i++) {
+            SINGLE_FLAG_PAYLOADS[i] = new ItemPayload(1 << i);
+        }
+    }
+
+    public static final ItemPayload CONTENT = of(FLAG_CONTENT);
+    public static final ItemPayload SELECTION = of(FLAG_SELECTION);
+
+    public final int mask;
+
+    protected ItemPayload(int mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * @return 单flag时返回共享实例；多flag组合会创建新实例，高频场景建议逐个flag分发，由adapter合并
+     */
+    @NonNull
+    public static ItemPayload of(int mask) {
+        if (mask != 0 && Integer.bitCount(mask) == 1) {
+            return SINGLE_FLAG_PAYLOADS[Integer.numberOfTrailingZeros(mask)];
+        }
+        return new ItemPayload(mask);
+    }
+
+    /**
+     * 合并payload列表中的ItemPayload，其他类型的payload忽略
+     */
+    public static int merge(@NonNull List<Object> payloads) {
+        int mask = 0;
+        for (int i = 0, size = payloads.size(); i < size; i++) {
+            Object payload = payloads.get(i);
+            if (payload instanceof ItemPayload) {
+                mask |= ((ItemPayload) payload).mask;
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,35 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * 分页加载接口，由{@link PagedSource}按需调用
+ *
+ * @author shendawei
+ * @classname PageLoader
+ * @date 3/24/23 9:05 PM
+ */
+public interface PageLoader<T> {
+
+    /**
+     * 加载指定页，同一页同一时刻最多一个请求
+     * 可在任意线程回调，结果切换至主线程应用；每个callback仅第一次回调有效
+     *
+     * @param page     页码，从0开始
+     * @param pageSize 每页数量
+     */
+    void loadPage(int page, int pageSize, @NonNull Callback<T> callback);
+
+    interface Callback<T> {
+        /**
+         * @param items   本页数据，非最后一页时数量应等于pageSize
+         * @param hasMore 是否还有下一页
+         */
+        void onPageLoaded(@NonNull List<? extends T> items, boolean hasMore);
+
+        void onPageFailed(@Nullable Throwable error);
+    }
+}
@@ -0,0 +1,465 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import android.util.SparseArray;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.shendawei.recycler.library.utils.ThreadUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 分页数据源，替代手动addItems分页
+ *
+ * 原理
+ * 1. adapter绑定position时回调{@link #onBindPosition(int)}，距末尾不足预取距离时请求下一页
+ * 2. 请求期间在末尾插入一页占位行（null item，viewType见{@link BaseRecyclerAdapter#getPlaceholderViewType()}，
+ *    holder通过{@link BaseHolder#bindPlaceholder(int)}展示），
+ *    结果返回后原位替换占位行：一次区间change，数量不足时一次尾部remove，不影响已加载的item
+ * 3. 每页同一时刻最多一个请求；上一页返回前不请求下一页（是否还有下一页由上一页决定）
+ * 4. refresh后，过期请求的结果直接丢弃
+ * 5. 窗口模式（{@link #setMaxLoadedPages(int)}）：只保留绑定位置附近的页，远处的页原位替换为占位行释放内存，
+ *    item总数不变，滚动位置不会跳动；占位页重新进入绑定范围时按原页码重新加载
+ *    淘汰与重新加载分别回调adapter的onItemsEvicted／onEvictedPageReloaded，按key维护的状态（如选中态）需设置业务key才能恢复
+ *
+ * 分页模式下数据由PagedSource维护，不要再直接调用adapter的增删方法
+ *
+ * 使用
+ * adapter.setPagedSource(new PagedSource<>(loader, 20)); source.refresh();
+ *
+ * @author shendawei
+ * @classname PagedSource
+ * @date 3/24/23 9:05 PM
+ */
+public class PagedSource<T> {
+    private static final int STATE_LOADING = 0;
+    private static final int STATE_LOADED = 1;
+    private static final int STATE_EVICTED = 2;
+
+    private final PageLoader<T> mLoader;
+    private final int mPageSize;
+    private int mPrefetchDistance;
+    private boolean mPlaceholdersEnabled = true;
+    private BaseRecyclerAdapter<T, ?, ?> mAdapter;
+    /**
+     * 进行中的请求，key为页码
+     */
+    private final SparseArray<PageRequest> mInFlightPages = new SparseArray<>();
+    /**
+     * 已请求的页（含进行中），下标为页码：起始位置、占用的item数量、状态
+     */
+    private int mPageCount;
+    private int[] mPageStarts = new int[16];
+    private int[] mPageItemCounts = new int[16];
+    private int[] mPageStates = new int[16];
+    private boolean mHasMore = true;
+    private int mFailedPage = -1;
+    /**
+     * 窗口模式：最多保留的已加载页数，0表示不限制
+     */
+    private int mMaxLoadedPages;
+    private int mLoadedPageCount;
+    private int mBoundPosition;
+    /**
+     * refresh时自增，丢弃过期请求
+     */
+    private int mGeneration;
+    private Listener mListener;
+    /**
+     * 绑定期间（RecyclerView布局中）不能修改数据，预取／窗口调整post到下一消息执行
+     */
+    private boolean mPrefetchPending;
+    private final Runnable mPrefetchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mPrefetchPending = false;
+            if (mAdapter == null) {
+                return;
+            }
+            if (mMaxLoadedPages > 0) {
+                updateWindow(mBoundPosition);
+            }
+            if (needsNextPage(mBoundPosition)) {
+                loadNextPage();
+            }
+        }
+    };
+
+    public PagedSource(@NonNull PageLoader<T> loader, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive, pageSize = " + pageSize);
+        }
+        mLoader = loader;
+        mPageSize = pageSize;
+        mPrefetchDistance = pageSize;
+    }
+
+    /**
+     * 预取距离：绑定的position距末尾不超过该值时请求下一页
+     *
+     * @param prefetchDistance 默认pageSize
+     */
+    public void setPrefetchDistance(int prefetchDistance) {
+        mPrefetchDistance = Math.max(0, prefetchDistance);
+    }
+
+    /**
+     * 请求期间是否显示占位行
+     *
+     * @param enabled 默认开启
+     */
+    public void setPlaceholdersEnabled(boolean enabled) {
+        mPlaceholdersEnabled = enabled;
+    }
+
+    /**
+     * 窗口模式，限制内存中保留的页数，超出时淘汰距绑定位置最远的页
+     * 绑定位置所在页及前后相邻页始终保留
+     *
+     * @param maxLoadedPages 0（默认）不限制，否则至少为3
+     */
+    public void setMaxLoadedPages(int maxLoadedPages) {
+        mMaxLoadedPages = maxLoadedPages <= 0 ? 0 : Math.max(3, maxLoadedPages);
+    }
+
+    public void setListener(@Nullable Listener listener) {
+        mListener = listener;
+    }
+
+    public int getPageSize() {
+        return mPageSize;
+    }
+
+    public boolean hasMore() {
+        return mHasMore;
+    }
+
+    public boolean isLoading() {
+        return mInFlightPages.size() > 0;
+    }
+
+    /**
+     * @return 当前保留在内存中的页数
+     */
+    public int getLoadedPageCount() {
+        return mLoadedPageCount;
+    }
+
+    /**
+     * 由{@link BaseRecyclerAdapter#setPagedSource(PagedSource)}调用
+     */
+    @MainThread
+    void onAttached(@Nullable BaseRecyclerAdapter<T, ?, ?> adapter) {
+        mAdapter = adapter;
+        mGeneration++;
+        mInFlightPages.clear();
+    }
+
+    /**
+     * 清空数据并从第0页重新加载
+     */
+    @MainThread
+    public void refresh() {
+        checkAttached();
+        mGeneration++;
+        mInFlightPages.clear();
+        mPageCount = 0;
+        mLoadedPageCount = 0;
+        mBoundPosition = 0;
+        mHasMore = true;
+        mFailedPage = -1;
+        mAdapter.clear();
+        loadNextPage();
+    }
+
+    /**
+     * 重试失败的页
+     */
+    @MainThread
+    public void retry() {
+        checkAttached();
+        int failedPage = mFailedPage;
+        if (failedPage < 0) {
+            return;
+        }
+        mFailedPage = -1;
+        if (failedPage < mPageCount) {
+            loadPage(failedPage);
+        } else {
+            loadNextPage();
+        }
+    }
+
+    /**
+     * adapter绑定position时调用，按预取距离触发下一页，窗口模式下重新加载／淘汰页
+     */
+    @MainThread
+    void onBindPosition(int position) {
+        mBoundPosition = position;
+        if (mPrefetchPending) {
+            return;
+        }
+        if (needsNextPage(position) || (mMaxLoadedPages > 0 && needsWindowUpdate(position))) {
+            mPrefetchPending = true;
+            ThreadUtils.postOnMainThread(mPrefetchRunnable);
+        }
+    }
+
+    private boolean needsNextPage(int position) {
+        if (!mHasMore || mFailedPage >= 0) {
+            return false;
+        }
+        if (mPageCount > 0 && mPageStates[mPageCount - 1] == STATE_LOADING) {
+            // 上一页返回前不请求下一页
+            return false;
+        }
+        return position >= mAdapter.getItemCount() - 1 - mPrefetchDistance;
+    }
+
+    private boolean needsWindowUpdate(int position) {
+        if (mPageCount == 0) {
+            return false;
+        }
+        if (mLoadedPageCount > mMaxLoadedPages) {
+            return true;
+        }
+        int page = pageAt(position);
+        for (int p = Math.max(0, page - 1), end = Math.min(mPageCount - 1, page + 1); p <= end; p++) {
+            if (mPageStates[p] == STATE_EVICTED && p != mFailedPage) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 窗口模式：重新加载绑定位置附近被淘汰的页，再淘汰超出上限的远处页
+     */
+    private void updateWindow(int position) {
+        if (mPageCount == 0) {
+            return;
+        }
+        int page = pageAt(position);
+        for (int p = Math.max(0, page - 1), end = Math.min(mPageCount - 1, page + 1); p <= end; p++) {
+            if (mPageStates[p] == STATE_EVICTED && p != mFailedPage) {
+                loadPage(p);
+            }
+        }
+        trimWindow(page);
+    }
+
+    /**
+     * 从两端向中心淘汰距center最远的已加载页，直至不超过上限
+     */
+    private void trimWindow(int center) {
+        int lo = 0;
+        int hi = mPageCount - 1;
+        while (mLoadedPageCount > mMaxLoadedPages && lo <= hi) {
+            int page = center - lo >= hi - center ? lo++ : hi--;
+            if (Math.abs(page - center) <= 1) {
+                break;
+            }
+            if (mPageStates[page] == STATE_LOADED) {
+                evictPage(page);
+            }
+        }
+    }
+
+    /**
+     * 页内item原位替换为占位行，item总数不变
+     */
+    private void evictPage(int page) {
+        int count = mPageItemCounts[page];
+        if (count > 0) {
+            mAdapter.evictItems(page, mPageStarts[page], count);
+        }
+        mPageStates[page] = STATE_EVICTED;
+        mLoadedPageCount--;
+    }
+
+    /**
+     * position所在页，二分查找页起始位置
+     */
+    private int pageAt(int position) {
+        int index = Arrays.binarySearch(mPageStarts, 0, mPageCount, position);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return Math.max(0, Math.min(index, mPageCount - 1));
+    }
+
+    private void loadNextPage() {
+        if (!mHasMore || (mPageCount > 0 && mPageStates[mPageCount - 1] == STATE_LOADING)) {
+            return;
+        }
+        int page = mPageCount;
+        ensurePageCapacity(page + 1);
+        int start = mAdapter.getItemCount();
+        int placeholderCount = 0;
+        if (mPlaceholdersEnabled) {
+            placeholderCount = mPageSize;
+            mAdapter.addItems(Collections.<T>nCopies(placeholderCount, null));
+        }
+        mPageStarts[page] = start;
+        mPageItemCounts[page] = placeholderCount;
+        mPageStates[page] = STATE_LOADING;
+        mPageCount++;
+        loadPage(page);
+    }
+
+    private void ensurePageCapacity(int capacity) {
+        if (capacity > mPageStarts.length) {
+            int newLength = Math.max(capacity, mPageStarts.length * 2);
+            mPageStarts = Arrays.copyOf(mPageStarts, newLength);
+            mPageItemCounts = Arrays.copyOf(mPageItemCounts, newLength);
+            mPageStates = Arrays.copyOf(mPageStates, newLength);
+        }
+    }
+
+    /**
+     * 请求指定页，同一页已有请求时忽略
+     */
+    private void loadPage(int page) {
+        if (mInFlightPages.get(page) != null) {
+            return;
+        }
+        boolean reload = mPageStates[page] == STATE_EVICTED;
+        mPageStates[page] = STATE_LOADING;
+        PageRequest request = new PageRequest(page, reload, mGeneration);
+        mInFlightPages.put(page, request);
+        mLoader.loadPage(page, mPageSize, request);
+    }
+
+    /**
+     * 主线程应用结果：原位替换占位行，再处理数量差异
+     */
+    private void onPageLoaded(PageRequest request, List<? extends T> items, boolean hasMore) {
+        if (!isCurrent(request)) {
+            return;
+        }
+        int page = request.mPage;
+        mInFlightPages.remove(page);
+        if (page == mPageCount - 1) {
+            mHasMore = hasMore;
+        }
+        int start = mPageStarts[page];
+        int oldCount = mPageItemCounts[page];
+        int replaced = Math.min(oldCount, items.size());
+        mAdapter.beginTransaction();
+        mAdapter.setApplyingPage(true);
+        if (replaced > 0) {
+            mAdapter.replaceItems(start, items.subList(0, replaced));
+        }
+        if (oldCount > replaced) {
+            mAdapter.removeItemsRange(start + replaced, start + oldCount - 1);
+        } else if (items.size() > replaced) {
+            int insertPosition = start + replaced;
+            List<? extends T> extraItems = items.subList(replaced, items.size());
+            if (insertPosition == mAdapter.getItemCount()) {
+                mAdapter.addItems(extraItems);
+            } else {
+                mAdapter.addItems(insertPosition, extraItems);
+            }
+        }
+        int delta = items.size() - oldCount;
+        mPageItemCounts[page] = items.size();
+        for (int p = page + 1; p < mPageCount; p++) {
+            mPageStarts[p] += delta;
+        }
+        mAdapter.setApplyingPage(false);
+        if (request.mReload) {
+            mAdapter.onEvictedPageReloaded(page);
+        }
+        mPageStates[page] = STATE_LOADED;
+        mLoadedPageCount++;
+        if (mMaxLoadedPages > 0) {
+            trimWindow(pageAt(mBoundPosition));
+        }
+        mAdapter.commitTransaction();
+        if (mListener != null) {
+            mListener.onPageLoaded(page, hasMore);
+        }
+    }
+
+    /**
+     * 追加页失败时移除占位行；重新加载失败时保留占位行，等待retry
+     */
+    private void onPageFailed(PageRequest request, Throwable error) {
+        if (!isCurrent(request)) {
+            return;
+        }
+        int page = request.mPage;
+        mInFlightPages.remove(page);
+        mFailedPage = page;
+        if (!request.mReload) {
+            int count = mPageItemCounts[page];
+            if (count > 0) {
+                mAdapter.removeItemsRange(mPageStarts[page], mPageStarts[page] + count - 1);
+            }
+            mPageCount--;
+        } else {
+            mPageStates[page] = STATE_EVICTED;
+        }
+        if (mListener != null) {
+            mListener.onPageFailed(page, error);
+        }
+    }
+
+    private boolean isCurrent(PageRequest request) {
+        return mAdapter != null && request.mGeneration == mGeneration && mInFlightPages.get(request.mPage) == request;
+    }
+
+    private void checkAttached() {
+        if (mAdapter == null) {
+            throw new IllegalStateException("PagedSource is not attached, call adapter.setPagedSource() first");
+        }
+    }
+
+    /**
+     * 单页请求，回调总是post至主线程（loader同步回调时亦不会在布局或加载过程中修改数据）
+     */
+    private final class PageRequest implements PageLoader.Callback<T> {
+        final int mPage;
+        /**
+         * 被淘汰页的重新加载，失败时保留占位行
+         */
+        final boolean mReload;
+        final int mGeneration;
+
+        PageRequest(int page, boolean reload, int generation) {
+            mPage = page;
+            mReload = reload;
+            mGeneration = generation;
+        }
+
+        @Override
+        public void onPageLoaded(@NonNull final List<? extends T> items, final boolean hasMore) {
+            ThreadUtils.postOnMainThread(new Runnable() {
+                @Override
+                public void run() {
+                    PagedSource.this.onPageLoaded(PageRequest.this, items, hasMore);
+                }
+            });
+        }
+
+        @Override
+        public void onPageFailed(@Nullable final Throwable error) {
+            ThreadUtils.postOnMainThread(new Runnable() {
+                @Override
+                public void run() {
+                    PagedSource.this.onPageFailed(PageRequest.this, error);
+                }
+            });
+        }
+    }
+
+    public interface Listener {
+        void onPageLoaded(int page, boolean hasMore);
+
+        void onPageFailed(int page, @Nullable Throwable error);
+    }
+}
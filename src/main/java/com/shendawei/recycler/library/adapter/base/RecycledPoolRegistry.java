@@ -0,0 +1,163 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import android.util.SparseIntArray;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.HashMap;
+import java.util.WeakHashMap;
+
+/**
+ * 共享RecycledViewPool注册表
+ * 多个adapter（多tab、嵌套列表）加入同一注册表后，相同Factory创建的holder可跨adapter复用
+ *
+ * 原理
+ * 1. viewType由Factory（类型 + layoutId）派生，在注册表内全局唯一，不同adapter的本地type不会冲突
+ * 2. 每个Factory通过{@link BaseHolder.Factory#getMaxRecycledViews()}声明pool容量
+ * 3. pool中的holder引用创建时的Context（Activity），不可跨页面共享：
+ *    {@link #of(LifecycleOwner)}按页面（Activity／Fragment）获取，页面销毁时自动清空并释放；
+ *    自行创建的实例须在页面销毁时调用{@link #clear()}
+ * 4. 加入注册表的adapter只能使用已注册Factory的viewType，未注册的本地type会与其他adapter的共享type冲突，直接抛出异常
+ *
+ * 使用
+ * adapter.joinSharedPool(RecycledPoolRegistry.of(activity)); registry.attach(recyclerView);
+ *
+ * @author shendawei
+ * @classname RecycledPoolRegistry
+ * @date 3/22/23 10:14 PM
+ */
+public class RecycledPoolRegistry {
+    /**
+     * 共享viewType起始值，与adapter本地type区分
+     */
+    private static final int SHARED_TYPE_START = 0x100000;
+    /**
+     * RecycledViewPool默认每种类型的容量
+     */
+    static final int DEFAULT_MAX_SCRAP = 5;
+
+    /**
+     * 按页面划分的注册表，页面销毁时移除
+     */
+    private static final WeakHashMap<LifecycleOwner, RecycledPoolRegistry> sRegistries = new WeakHashMap<>();
+
+    private final RecyclerView.RecycledViewPool mPool = new RecyclerView.RecycledViewPool();
+    private final HashMap<FactoryKey, Integer> mViewTypes = new HashMap<>();
+    private int mNextViewType = SHARED_TYPE_START;
+    /**
+     * 各共享viewType的pool容量，RecycledViewPool未提供读取接口，在此记录
+     */
+    private final SparseIntArray mMaxRecycledViews = new SparseIntArray();
+
+    /**
+     * 页面级注册表，同一页面内的adapter共享，页面销毁时清空pool
+     */
+    @MainThread
+    @NonNull
+    public static RecycledPoolRegistry of(@NonNull LifecycleOwner owner) {
+        RecycledPoolRegistry registry = sRegistries.get(owner);
+        if (registry != null) {
+            return registry;
+        }
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            throw new IllegalStateException("Can't obtain RecycledPoolRegistry for a destroyed owner: " + owner);
+        }
+        final RecycledPoolRegistry newRegistry = new RecycledPoolRegistry();
+        sRegistries.put(owner, newRegistry);
+        lifecycle.addObserver(new LifecycleEventObserver() {
+            @Override
+            public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+                if (event == Lifecycle.Event.ON_DESTROY) {
+                    source.getLifecycle().removeObserver(this);
+                    sRegistries.remove(source);
+                    newRegistry.clear();
+                }
+            }
+        });
+        return newRegistry;
+    }
+
+    /**
+     * RecyclerView使用共享pool
+     */
+    @MainThread
+    public void attach(@NonNull RecyclerView recyclerView) {
+        recyclerView.setRecycledViewPool(mPool);
+    }
+
+    @NonNull
+    public RecyclerView.RecycledViewPool getPool() {
+        return mPool;
+    }
+
+    /**
+     * 获取Factory对应的共享viewType，首次注册时按Factory声明设置pool容量
+     */
+    @MainThread
+    public int obtainViewType(@NonNull BaseHolder.Factory<?, ?> factory) {
+        FactoryKey key = new FactoryKey(factory.getClass(), factory.getLayoutId());
+        Integer viewType = mViewTypes.get(key);
+        if (viewType == null) {
+            viewType = mNextViewType++;
+            mViewTypes.put(key, viewType);
+            mMaxRecycledViews.put(viewType, factory.getMaxRecycledViews());
+            mPool.setMaxRecycledViews(viewType, factory.getMaxRecycledViews());
+        }
+        return viewType;
+    }
+
+    /**
+     * @return 共享viewType的pool容量，未注册的type返回RecycledViewPool默认容量
+     */
+    public int getMaxRecycledViews(int viewType) {
+        return mMaxRecycledViews.get(viewType, DEFAULT_MAX_SCRAP);
+    }
+
+    /**
+     * 提高共享viewType的pool容量，只升不降，不会低于Factory声明的容量
+     */
+    @MainThread
+    public void ensureMaxRecycledViews(int viewType, int max) {
+        if (max > getMaxRecycledViews(viewType)) {
+            mMaxRecycledViews.put(viewType, max);
+            mPool.setMaxRecycledViews(viewType, max);
+        }
+    }
+
+    /**
+     * 释放pool中的所有holder，自行创建的注册表须在页面销毁时调用
+     */
+    @MainThread
+    public void clear() {
+        mPool.clear();
+    }
+
+    private static final class FactoryKey {
+        private final Class<?> mFactoryClass;
+        private final int mLayoutId;
+
+        FactoryKey(Class<?> factoryClass, int layoutId) {
+            mFactoryClass = factoryClass;
+            mLayoutId = layoutId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof FactoryKey)) return false;
+            FactoryKey that = (FactoryKey) o;
+            return mLayoutId == that.mLayoutId && mFactoryClass == that.mFactoryClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mFactoryClass.hashCode() + mLayoutId;
+        }
+    }
+}
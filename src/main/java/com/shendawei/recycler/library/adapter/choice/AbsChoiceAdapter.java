@@ -1,25 +1,33 @@
 package com.shendawei.recycler.library.adapter.choice;
 
-import android.util.SparseBooleanArray;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.shendawei.recycler.library.adapter.base.BaseHolder;
 import com.shendawei.recycler.library.adapter.base.BaseRecyclerAdapter;
+import com.shendawei.recycler.library.adapter.base.IdentityItemKeyProvider;
+import com.shendawei.recycler.library.adapter.base.ItemKeyProvider;
+import com.shendawei.recycler.library.adapter.base.ItemPayload;
+import com.shendawei.recycler.library.utils.LongIntMap;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * 支持多选模式的adapter基类
  *
  * 方案功能
- * － 支持多选
+ * － 支持多选、单选（setChoiceMode），单选切换仅刷新前后两个item
  * － 支持全选
  * － 支持分页加载，自动全选
+ * － 支持差量刷新（putItems后台diff），替换数据集时清空选中态
  *
  * 方案设计实现原理
- * 1. 利用SparseBooleanArray记录选择项
+ * 1. 利用SelectionStore按item key记录选择项（未设置ItemKeyProvider时按对象引用分配key），增删数据后选中态不错位
  * 2. 抽象设计，实现选择项与数据item隔离开
  * 3. 基类定义开启／关闭选择模式 isChoiceMode()，默认开启，子类可基于业务条件实现
  *    基类定义isItemChecked(position)，item是否可被勾选，与数据item无关
@@ -27,74 +35,118 @@ import java.util.List;
  *    子类实现isItemCheckable(T item)，由item给出条件是否可被勾选
  * 4. holder基类定义isItemChecked(position)，item是否可被勾选，与数据item无关
  *    holder基类定义isItemCheckable(position)，item是否可被勾选，与数据item有关，默认可被勾选
- * 5. 实现设置全选、取消全选，更新选中数量mSelectionCount
- * 6. 实现计算最大可选数量，数据列表发生变化，及时更新最大可选数量mSelectableCount
- * 7. 分页加载，自动全选：先判断是否全选、再更新最大可选数量mSelectableCount，最后二次设置全选、更新选中数量mSelectionCount
- * 8. holder基类非选择模式、或不可选时，点击直接return
+ * 5. 实现设置全选、取消全选，选中数量即选中集合大小
+ * 6. 数据增删改时，仅根据变化的item增量更新最大可选数量mSelectableCount；可选规则变化时调用invalidateCheckable()
+ * 7. 全选采用反选表示（除排除集合外全部选中），全选／取消全选O(1)，仅以payload刷新可见item；
+ *    分页加载自动全选：已全选时PagedSource加载的item无需额外处理即为选中；业务调用插入的item默认不选中
+ * 8. 区间选择：setRangeChecked区间勾选、setRangeCheckedFromAnchor（shift-click）、DragSelectTouchListener拖动多选，
+ *    每个区间仅一次payload区间刷新及一次回调
+ *    holder基类非选择模式、或不可选时，点击直接return
  *    holder基类通过notifyItemChanged(position, payload)，实现局部刷新选中态
  * 9. holder子类通过onBindData(item, position)，实现item展示
  *    holder子类通过onBindData(item, position, payload)，实现item局部刷新选中态
+ * 10. viewType由getChoiceItemType(item)给出（默认单类型），holder通过mFactories或onCreateChoiceHolder创建，可被复用
+ * 11. 过滤模式（ItemFilter）下选中数量、最大可选数量按全量数据计算，被过滤掉的item保留选中态；
+ *     全选／取消全选、区间选择只作用于可见item
  *
  * @author shendawei
  * @classname AbsChoiceAdapter
  * @date 22/4/5 下午9:29
  */
 public abstract class AbsChoiceAdapter<T> extends BaseRecyclerAdapter<T, ChoiceBaseHolder<T>, ChoiceCallback> {
-    private final SparseBooleanArray mSelectionArray = new SparseBooleanArray();
+    public static final int CHOICE_MODE_MULTIPLE = 0;
+    public static final int CHOICE_MODE_SINGLE = 1;
+
+    /**
+     * 选中集合，按item key存储，实际选中数量即集合大小
+     */
+    private final SelectionStore mSelection = new SelectionStore();
     /**
-     * 实际选中数量
+     * 未设置业务key时使用的引用key
      */
-    private int mSelectionCount = 0;
+    private final IdentityItemKeyProvider<T> mIdentityKeys = new IdentityItemKeyProvider<>();
     /**
-     * 最大可选数量
+     * 最大可选数量，随数据增删改增量维护
      */
     private int mSelectableCount = 0;
+    /**
+     * 不可选item的key，记录加入时的可选状态，移除／替换时据此增量更新mSelectableCount
+     */
+    private final LongIntMap mUncheckableKeys = new LongIntMap();
+    /**
+     * 分页窗口淘汰的item中有选中记录的key -> 所在页，淘汰期间不计入选中数量，页重新加载后按key恢复
+     */
+    private final LongIntMap mEvictedKeys = new LongIntMap();
+    /**
+     * 过滤模式下的全量数据，由ItemFilter发布结果时传入；未过滤时为null
+     */
+    private List<? extends T> mFilterSource;
+    /**
+     * 当前是否有item被过滤掉（可见数据少于全量数据）
+     */
+    private boolean mFiltered;
+    /**
+     * 选择模式：多选／单选
+     */
+    private int mChoiceMode = CHOICE_MODE_MULTIPLE;
+    /**
+     * 单选模式下当前选中item的key，切换时据此O(1)定位上一个选中项
+     */
+    private long mSingleCheckedKey = RecyclerView.NO_ID;
+    /**
+     * 区间选择锚点（最近一次单击／区间操作的item key）
+     */
+    private long mAnchorKey = RecyclerView.NO_ID;
     //ChoiceCallback替代
     @Deprecated
     private IAdapterChoiceInterface choiceInterface;
 
     public AbsChoiceAdapter(ChoiceCallback cb) {
         super(cb);
+        super.setItemKeyProvider(mIdentityKeys);
     }
 
     @NonNull
     @Override
     public ChoiceBaseHolder<T> onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        ChoiceBaseHolder<T> holder = onCreateChoiceHolder(parent, viewType);
-        holder.setHolderCheckInterface(new ChoiceBaseHolder.IHolderCheckInterface() {
-            @Override
-            public void onChecked(int position, boolean isChecked) {
-                AbsChoiceAdapter.this.setItemChecked(position, isChecked);
-                if (choiceInterface != null) {
-                    choiceInterface.onChoiceChanged(isAllChecked());
-                }
-                mHolderCb.onChoiceChanged(isAllChecked());
-                AbsChoiceAdapter.this.notifyItemChanged(position, isChecked);
-            }
+        ChoiceBaseHolder<T> holder = onCreateChoiceHolder(parent, unmapViewType(viewType));
+        holder.setHolderCheckInterface(mHolderCheckInterface);
+        return holder;
+    }
 
-            @Override
-            public void onChecked(int position, boolean isChecked, boolean isNotifyItemChanged) {
-                AbsChoiceAdapter.this.setItemChecked(position, isChecked);
-                if (choiceInterface != null) {
-                    choiceInterface.onChoiceChanged(isAllChecked());
-                }
-                mHolderCb.onChoiceChanged(isAllChecked());
-                if (isNotifyItemChanged)
-                    AbsChoiceAdapter.this.notifyItemChanged(position, isChecked);
-            }
+    /**
+     * 共享pool中的holder可能由其他adapter创建，绑定前重新关联本adapter的选中态接口
+     */
+    @Override
+    protected void attachHolder(@NonNull ChoiceBaseHolder<T> holder) {
+        super.attachHolder(holder);
+        holder.setHolderCheckInterface(mHolderCheckInterface);
+    }
 
-            @Override
-            public boolean isChecked(int position) {
-                return AbsChoiceAdapter.this.isItemChecked(position);
-            }
+    /**
+     * 所有holder共用的选中态接口
+     */
+    private final ChoiceBaseHolder.IHolderCheckInterface mHolderCheckInterface = new ChoiceBaseHolder.IHolderCheckInterface() {
+        @Override
+        public void onChecked(int position, boolean isChecked) {
+            AbsChoiceAdapter.this.onItemCheckedChanged(position, isChecked, true);
+        }
 
-            @Override
-            public boolean isChoiceMode() {
-                return AbsChoiceAdapter.this.isChoiceMode();
-            }
-        });
-        return holder;
-    }
+        @Override
+        public void onChecked(int position, boolean isChecked, boolean isNotifyItemChanged) {
+            AbsChoiceAdapter.this.onItemCheckedChanged(position, isChecked, isNotifyItemChanged);
+        }
+
+        @Override
+        public boolean isChecked(int position) {
+            return AbsChoiceAdapter.this.isItemChecked(position);
+        }
+
+        @Override
+        public boolean isChoiceMode() {
+            return AbsChoiceAdapter.this.isChoiceMode();
+        }
+    };
 
     /**
      * 是否开启选择模式
@@ -105,11 +157,117 @@ public abstract class AbsChoiceAdapter<T> extends BaseRecyclerAdapter<T, ChoiceB
         return true;
     }
 
-    protected abstract ChoiceBaseHolder<T> onCreateChoiceHolder(ViewGroup parent, int viewType);
+    /**
+     * 设置单选／多选，切换时清空选中态
+     *
+     * @param choiceMode {@link #CHOICE_MODE_MULTIPLE}（默认）或{@link #CHOICE_MODE_SINGLE}
+     */
+    public void setChoiceMode(int choiceMode) {
+        if (mChoiceMode == choiceMode) {
+            return;
+        }
+        mChoiceMode = choiceMode;
+        resetSelection(false);
+        mSingleCheckedKey = RecyclerView.NO_ID;
+        dispatchItemRangeChanged(0, mDataSource.size(), ItemPayload.SELECTION);
+    }
+
+    public int getChoiceMode() {
+        return mChoiceMode;
+    }
+
+    public boolean isSingleChoiceMode() {
+        return mChoiceMode == CHOICE_MODE_SINGLE;
+    }
+
+    /**
+     * 勾选／取消指定位置，区分单选、多选，刷新item并回调
+     * 单选模式下切换选中项仅刷新前后两个item
+     */
+    public final void checkItem(int position, boolean isChecked) {
+        onItemCheckedChanged(position, isChecked, true);
+    }
+
+    /**
+     * @return 单选模式下当前选中位置，无选中返回RecyclerView.NO_POSITION
+     */
+    public int getSingleCheckedPosition() {
+        if (mSingleCheckedKey == RecyclerView.NO_ID || !mSelection.isSelected(mSingleCheckedKey)) {
+            return RecyclerView.NO_POSITION;
+        }
+        return getPositionForKey(mSingleCheckedKey);
+    }
+
+    private void onItemCheckedChanged(int position, boolean isChecked, boolean isNotifyItemChanged) {
+        if (mChoiceMode == CHOICE_MODE_SINGLE) {
+            setSingleItemChecked(position, isChecked);
+        } else {
+            setItemChecked(position, isChecked);
+        }
+        mAnchorKey = keyAt(position);
+        notifyChoiceChanged();
+        if (isNotifyItemChanged) {
+            dispatchItemRangeChanged(position, 1, ItemPayload.SELECTION);
+        }
+    }
+
+    /**
+     * 单选：取消上一个选中项（O(1)定位并局部刷新），再勾选当前项
+     */
+    private void setSingleItemChecked(int position, boolean isChecked) {
+        long key = keyAt(position);
+        if (key == RecyclerView.NO_ID || mUncheckableKeys.containsKey(key)) {
+            return;
+        }
+        if (!isChecked) {
+            mSelection.deselect(key);
+            if (key == mSingleCheckedKey) {
+                mSingleCheckedKey = RecyclerView.NO_ID;
+            }
+            return;
+        }
+        if (key == mSingleCheckedKey) {
+            mSelection.select(key);
+            return;
+        }
+        int previous = getSingleCheckedPosition();
+        if (mSingleCheckedKey != RecyclerView.NO_ID) {
+            mSelection.deselect(mSingleCheckedKey);
+        }
+        if (previous != RecyclerView.NO_POSITION) {
+            dispatchItemRangeChanged(previous, 1, ItemPayload.SELECTION);
+        }
+        mSelection.select(key);
+        mSingleCheckedKey = key;
+    }
+
+    /**
+     * 创建holder，默认从mFactories中按viewType查找Factory创建
+     * 子类可覆写，传统方式new holder
+     */
+    @SuppressWarnings("unchecked")
+    protected ChoiceBaseHolder<T> onCreateChoiceHolder(ViewGroup parent, int viewType) {
+        BaseHolder.Factory<T, ChoiceCallback> factory = (BaseHolder.Factory<T, ChoiceCallback>) mFactories.get(viewType);
+        if (factory == null) {
+            throw new RuntimeException("No factory found with type equals " + viewType);
+        }
+        BaseHolder<T, ChoiceCallback> holder = factory.createViewHolder(parent, viewType, mHolderCb);
+        if (!(holder instanceof ChoiceBaseHolder)) {
+            throw new RuntimeException("Factory of type " + viewType + " must create ChoiceBaseHolder");
+        }
+        return (ChoiceBaseHolder<T>) holder;
+    }
 
     @Override
     public void onBindViewHolder(@NonNull ChoiceBaseHolder<T> holder, int position) {
-        holder.bindData(mDataSource.get(position), position);
+        attachHolder(holder);
+        onBindPosition(position);
+        T item = mDataSource.get(position);
+        if (item == null) {
+            holder.bindPlaceholder(position);
+            return;
+        }
+        holder.bindData(item, position);
     }
 
     @Override
@@ -117,24 +275,80 @@ public abstract class AbsChoiceAdapter<T> extends BaseRecyclerAdapter<T, ChoiceB
         if (payloads == null || payloads.isEmpty()) {
             onBindViewHolder(holder, position);
         } else {
-            if (payloads.get(0) != null) {
-                holder.bindData(mDataSource.get(position), position, payloads.get(0));
+            attachHolder(holder);
+            onBindPosition(position);
+            T item = mDataSource.get(position);
+            if (item == null) {
+                holder.bindPlaceholder(position);
+                return;
+            }
+            // 其他payload对象逐个回调；所有ItemPayload合并为一个mask一次绑定
+            for (int i = 0, size = payloads.size(); i < size; i++) {
+                Object payload = payloads.get(i);
+                if (payload != null && !(payload instanceof ItemPayload)) {
+                    holder.bindData(item, position, payload);
+                }
+            }
+            int payloadMask = ItemPayload.merge(payloads);
+            if (payloadMask != 0) {
+                holder.bindData(item, position, payloadMask);
             }
         }
     }
 
+    /**
+     * 按item类型复用holder，不再以position作为viewType（每行独立类型将导致holder无法复用）
+     */
     @Override
     public int getItemViewType(int position) {
-        return position;
+        T item = mDataSource.get(position);
+        return mapViewType(item != null ? getChoiceItemType(item) : getPlaceholderViewType());
+    }
+
+    /**
+     * item对应的viewType，与{@link #generateFactories()}注册的Factory类型一致
+     * 分页占位行（item为null）使用{@link #getPlaceholderViewType()}，由holder的bindPlaceholder展示
+     *
+     * @return 默认单类型 0
+     */
+    protected int getChoiceItemType(T item) {
+        return 0;
+    }
+
+    /**
+     * 未设置业务key时，按对象引用分配key
+     */
+    @Override
+    public void setItemKeyProvider(@Nullable ItemKeyProvider<? super T> keyProvider) {
+        super.setItemKeyProvider(keyProvider != null ? keyProvider : mIdentityKeys);
+        mIdentityKeys.clear();
+        boolean hadSelection = getSelectionCount() > 0;
+        // key体系变化，原选中态失效，按新key重建不可选记录
+        resetSelection(false);
+        mSingleCheckedKey = RecyclerView.NO_ID;
+        mUncheckableKeys.clear();
+        List<? extends T> items = getChoiceItems();
+        for (int i = 0, size = items.size(); i < size; i++) {
+            T item = items.get(i);
+            if (item != null && !isItemCheckable(item)) {
+                mUncheckableKeys.put(mKeyProvider.getItemKey(item), 0);
+            }
+        }
+        if (hadSelection) {
+            dispatchDataSetChanged();
+        }
     }
 
     private void setItemChecked(int position, boolean isChecked) {
-        //多选模式 mSelectionArray存储所有items状态
-        mSelectionArray.put(position, isChecked);
+        //多选模式 mSelection按item key存储选中项
+        long key = keyAt(position);
+        if (key == RecyclerView.NO_ID || mUncheckableKeys.containsKey(key)) {
+            return;
+        }
         if (isChecked) {
-            mSelectionCount++;
+            mSelection.select(key);
         } else {
-            mSelectionCount--;
+            mSelection.deselect(key);
         }
     }
 
@@ -144,7 +358,23 @@ public abstract class AbsChoiceAdapter<T> extends BaseRecyclerAdapter<T, ChoiceB
      * @return 与item数据无关
      */
     private boolean isItemChecked(int position) {
-        return mSelectionArray.get(position);
+        long key = keyAt(position);
+        return key != RecyclerView.NO_ID && isKeyChecked(key);
+    }
+
+    private boolean isKeyChecked(long key) {
+        if (!mSelection.isSelected(key)) {
+            return false;
+        }
+        // 反选表示下，不可选item不在排除集合中，需单独过滤
+        return !mSelection.isInverted() || !mUncheckableKeys.containsKey(key);
+    }
+
+    private long keyAt(int position) {
+        if (position < 0 || position >= mDataSource.size()) {
+            return RecyclerView.NO_ID;
+        }
+        return getItemKey(position);
     }
 
     /**
@@ -156,144 +386,460 @@ public abstract class AbsChoiceAdapter<T> extends BaseRecyclerAdapter<T, ChoiceB
         return true;
     }
 
+    /**
+     * 数据集整体替换（含差量刷新模式），清空选中态，重新计算最大可选数量
+     * 仅对旧数据中已勾选的位置做局部刷新，不再整体notifyDataSetChanged
+     */
     @Override
-    public void putItems(List<? extends T> items) {
-        super.putItems(items);
-        computeSelectableCount();
-        clearAllChecked();
+    protected void onItemsReplacing(@NonNull List<? extends T> newItems) {
+        super.onItemsReplacing(newItems);
+        if (mSelection.isInverted()) {
+            // 反选表示下选中项不可枚举，局部刷新整个区间（仅可见item会重新绑定）
+            dispatchItemRangeChanged(0, mDataSource.size(), ItemPayload.SELECTION);
+        } else {
+            for (long key : mSelection.toKeyArray()) {
+                int position = getPositionForKey(key);
+                if (position != RecyclerView.NO_POSITION) {
+                    dispatchItemRangeChanged(position, 1, ItemPayload.SELECTION);
+                }
+            }
+        }
+        resetSelection(false);
+        mSingleCheckedKey = RecyclerView.NO_ID;
+        mIdentityKeys.clear();
+        mUncheckableKeys.clear();
+        mSelectableCount = 0;
+        mFilterSource = null;
+        mFiltered = false;
+        for (int i = 0, size = newItems.size(); i < size; i++) {
+            T item = newItems.get(i);
+            if (item != null) {
+                onCheckableItemAdded(item);
+            }
+        }
     }
 
+    /**
+     * 分页加载自动全选：已全选时转为反选表示，分页加载的item无需额外处理即为选中
+     * 业务调用插入的item默认不选中，反选表示下记入排除集合
+     */
     @Override
-    public void clear() {
-        super.clear();
-        computeSelectableCount();
+    protected void onItemsInserted(int position, @NonNull List<? extends T> items) {
+        super.onItemsInserted(position, items);
+        boolean pageLoad = isApplyingPage();
+        if (pageLoad) {
+            onPageItemsAdding();
+        }
+        for (int i = 0, size = items.size(); i < size; i++) {
+            T item = items.get(i);
+            if (item != null && onCheckableItemAdded(item) && !pageLoad) {
+                excludeNewItem(mKeyProvider.getItemKey(item));
+            }
+        }
     }
 
-    @Override
-    public void addItem(T item) {
-        super.addItem(item);
-        computeSelectableCount();
+    /**
+     * 分页加载的item加入前调用：已全选时转为反选表示
+     */
+    private void onPageItemsAdding() {
+        if (mChoiceMode == CHOICE_MODE_MULTIPLE && !mSelection.isInverted() && mSelectableCount > 0 && isAllChecked()) {
+            resetSelection(true);
+        }
     }
 
-    @Override
-    public void addItem(int index, T item) {
-        super.addItem(index, item);
-        computeSelectableCount();
+    /**
+     * 非分页加载的新item默认不选中：反选表示下不在排除集合中即为选中，需记入排除集合
+     */
+    private void excludeNewItem(long key) {
+        if (mSelection.isInverted()) {
+            mSelection.deselect(key);
+        }
     }
 
+    /**
+     * 移除的item同步移出选中集合，选中态不会错位到其他行
+     */
     @Override
-    public void replaceItem(int index, T item) {
-        super.replaceItem(index, item);
-        computeSelectableCount();
+    protected void onItemsRemoved(int position, @NonNull List<? extends T> removedItems) {
+        super.onItemsRemoved(position, removedItems);
+        for (int i = 0, size = removedItems.size(); i < size; i++) {
+            T item = removedItems.get(i);
+            if (item != null) {
+                long key = mKeyProvider.getItemKey(item);
+                mSelection.forget(key);
+                onCheckableItemRemoved(key);
+                mIdentityKeys.forget(item);
+            }
+        }
     }
 
+    /**
+     * 替换为不同key的item、占位行，或新item不可选时，移出选中集合；key相同则保留选中态
+     * 分页加载替换占位行同{@link #onItemsInserted(int, List)}，已全选时自动选中；其他替换得到的新key默认不选中
+     */
     @Override
-    public void addItems(List<? extends T> items) {
-        super.addItems(items);
-        boolean isAllChecked = isAllChecked();
-        computeSelectableCount();
-//        //分页加载自动全选
-//        if (isAllChecked) setAllChecked();
+    protected void onItemReplaced(int position, T oldItem, T newItem) {
+        super.onItemReplaced(position, oldItem, newItem);
+        boolean pageLoad = oldItem == null && isApplyingPage();
+        if (pageLoad) {
+            onPageItemsAdding();
+        }
+        boolean sameKey = false;
+        if (oldItem != null) {
+            long oldKey = mKeyProvider.getItemKey(oldItem);
+            onCheckableItemRemoved(oldKey);
+            if (oldItem != newItem) {
+                sameKey = newItem != null && mKeyProvider.getItemKey(newItem) == oldKey;
+                if (!sameKey) {
+                    mSelection.forget(oldKey);
+                }
+                mIdentityKeys.forget(oldItem);
+            } else {
+                sameKey = true;
+            }
+        }
+        if (newItem == null) {
+            return;
+        }
+        if (!onCheckableItemAdded(newItem)) {
+            mSelection.forget(mKeyProvider.getItemKey(newItem));
+        } else if (!sameKey && !pageLoad) {
+            excludeNewItem(mKeyProvider.getItemKey(newItem));
+        }
     }
 
+    /**
+     * 分页窗口淘汰：item移出数据集，不再计入最大可选数量及选中数量
+     * 有选中记录的key暂存至页重新加载，同key的item返回时恢复；
+     * 未设置业务key（setItemKeyProvider）时，重新加载得到的新对象无法对应原引用key，选中态随淘汰丢弃
+     */
     @Override
-    public void addItems(int index, List<? extends T> items) {
-        super.addItems(index, items);
-        boolean isAllChecked = isAllChecked();
-        computeSelectableCount();
-//        //分页加载自动全选
-//        if (isAllChecked) setAllChecked();
+    protected void onItemsEvicted(int page, int position, @NonNull List<? extends T> evictedItems) {
+        boolean stableKeys = mKeyProvider != mIdentityKeys;
+        for (int i = 0, size = evictedItems.size(); i < size; i++) {
+            T item = evictedItems.get(i);
+            if (item == null) {
+                continue;
+            }
+            long key = mKeyProvider.getItemKey(item);
+            onCheckableItemRemoved(key);
+            if (mSelection.isRecorded(key)) {
+                mSelection.forget(key);
+                if (stableKeys) {
+                    mEvictedKeys.put(key, page);
+                }
+            }
+            mIdentityKeys.forget(item);
+        }
     }
 
+    /**
+     * 重新加载的页未返回的key视为已移除，丢弃暂存的选中记录
+     */
     @Override
-    public void changeItem(T item) {
-        super.changeItem(item);
-        computeSelectableCount();
+    protected void onEvictedPageReloaded(int page) {
+        if (mEvictedKeys.isEmpty()) {
+            return;
+        }
+        long[] stale = new long[mEvictedKeys.size()];
+        int count = 0;
+        for (int slot = mEvictedKeys.nextSlot(-1); slot >= 0; slot = mEvictedKeys.nextSlot(slot)) {
+            if (mEvictedKeys.valueAt(slot) == page) {
+                stale[count++] = mEvictedKeys.keyAt(slot);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            mEvictedKeys.remove(stale[i]);
+        }
     }
 
+    /**
+     * 选中态按key维护，排序模式下移动位置等同原位替换
+     */
     @Override
-    public void removeItem(T item) {
-        super.removeItem(item);
-        computeSelectableCount();
+    protected void onItemMoved(int fromPosition, int toPosition, T oldItem, T newItem) {
+        onItemReplaced(toPosition, oldItem, newItem);
     }
 
+    /**
+     * 发布过滤结果：被过滤掉的item仍属于数据集，保留选中态及identity key，过滤条件放宽后重新可见时仍为选中
+     * 选中数量、最大可选数量按全量数据计算；仅查询条件变化时全量数据不变，无需重新计算
+     */
     @Override
-    public void removeItem(int index) {
-        super.removeItem(index);
-        computeSelectableCount();
+    protected void onItemsFiltered(@NonNull List<? extends T> visibleItems, @NonNull List<? extends T> sourceItems) {
+        super.onItemsReplacing(visibleItems);
+        mFiltered = visibleItems.size() < sourceItems.size();
+        if (sourceItems == mFilterSource) {
+            return;
+        }
+        mFilterSource = sourceItems;
+        if (mKeyProvider == mIdentityKeys) {
+            mIdentityKeys.retain(sourceItems);
+        }
+        // 全量数据更新：按全量数据重建可选记录，移除已不在全量数据中的item的选中记录
+        LongIntMap sourceKeys = new LongIntMap(sourceItems.size());
+        mUncheckableKeys.clear();
+        mEvictedKeys.clear();
+        mSelectableCount = 0;
+        for (int i = 0, size = sourceItems.size(); i < size; i++) {
+            T item = sourceItems.get(i);
+            if (item == null) {
+                continue;
+            }
+            long key = mKeyProvider.getItemKey(item);
+            sourceKeys.put(key, 0);
+            if (isItemCheckable(item)) {
+                mSelectableCount++;
+            } else {
+                mUncheckableKeys.put(key, 0);
+            }
+        }
+        for (long key : mSelection.toKeyArray()) {
+            if (!sourceKeys.containsKey(key) || mUncheckableKeys.containsKey(key)) {
+                mSelection.forget(key);
+            }
+        }
+        if (!sourceKeys.containsKey(mSingleCheckedKey)) {
+            mSingleCheckedKey = RecyclerView.NO_ID;
+        }
     }
 
-    @Override
-    public void removeItemsFrom(int start) {
-        super.removeItemsFrom(start);
-        computeSelectableCount();
+    /**
+     * 增量维护最大可选数量：item加入数据集，淘汰前有选中记录的item（按key）恢复其记录
+     *
+     * @return item是否可选
+     */
+    private boolean onCheckableItemAdded(@NonNull T item) {
+        if (isItemCheckable(item)) {
+            mSelectableCount++;
+            if (!mEvictedKeys.isEmpty()) {
+                long key = mKeyProvider.getItemKey(item);
+                if (mEvictedKeys.remove(key)) {
+                    mSelection.record(key);
+                }
+            }
+            return true;
+        }
+        mUncheckableKeys.put(mKeyProvider.getItemKey(item), 0);
+        return false;
     }
 
-    @Override
-    public void removeItemsRange(int start, int end) {
-        super.removeItemsRange(start, end);
-        computeSelectableCount();
+    /**
+     * 增量维护最大可选数量：item移出数据集，按加入时记录的可选状态扣减
+     */
+    private void onCheckableItemRemoved(long key) {
+        if (!mUncheckableKeys.remove(key)) {
+            mSelectableCount--;
+        }
     }
 
     /**
-     * 计算最大可选数量
-     *
-     * 数据发生变化时，调用方法计算
+     * 可选规则（isItemCheckable）发生变化时调用
+     * 全量重新计算最大可选数量，移除已不可选的选中项，并刷新列表
      */
-    private void computeSelectableCount() {
+    public void invalidateCheckable() {
+        mUncheckableKeys.clear();
         mSelectableCount = 0;
-        int size = mDataSource.size();
-        for (int i = 0; i < size; i++) {
-            if (isItemCheckable(mDataSource.get(i))) {
-                mSelectableCount++;
+        List<? extends T> items = getChoiceItems();
+        for (int i = 0, size = items.size(); i < size; i++) {
+            T item = items.get(i);
+            if (item != null && !onCheckableItemAdded(item)) {
+                mSelection.forget(mKeyProvider.getItemKey(item));
             }
         }
+        dispatchDataSetChanged();
+    }
+
+    /**
+     * 选中态所属的数据集：过滤模式下为全量数据，否则为adapter数据
+     */
+    private List<? extends T> getChoiceItems() {
+        return mFilterSource != null ? mFilterSource : mDataSource;
     }
 
+    /**
+     * 全选，O(1)：转为反选表示，仅局部刷新（可见item以payload重新绑定）
+     * 过滤中只勾选可见item，O(可见数量)，被过滤掉的item保持原状态
+     */
     public final void setAllChecked() {
-        int size = mDataSource.size();
-        mSelectionCount = mSelectableCount;
-        for (int i = 0; i < size; i++) {
-            if (isItemCheckable(mDataSource.get(i)))
-                mSelectionArray.put(i, true);
+        if (mChoiceMode == CHOICE_MODE_SINGLE) {
+            return;
         }
-        notifyDataSetChanged();
+        if (mFiltered) {
+            for (int i = 0, size = mDataSource.size(); i < size; i++) {
+                setItemChecked(i, true);
+            }
+        } else {
+            resetSelection(true);
+        }
+        dispatchItemRangeChanged(0, mDataSource.size(), ItemPayload.SELECTION);
     }
 
+    /**
+     * 取消全选，O(1)
+     * 过滤中只取消可见item，O(可见数量)，被过滤掉的item保持原状态
+     */
     public final void clearAllChecked() {
-        int size = mDataSource.size();
-        mSelectionCount = 0;
-        for (int i = 0; i < size; i++) {
-            if (isItemCheckable(mDataSource.get(i)))
-                mSelectionArray.put(i, false);
+        if (mFiltered) {
+            for (int i = 0, size = mDataSource.size(); i < size; i++) {
+                setItemChecked(i, false);
+            }
+            if (mSingleCheckedKey != RecyclerView.NO_ID && !mSelection.isSelected(mSingleCheckedKey)) {
+                mSingleCheckedKey = RecyclerView.NO_ID;
+            }
+        } else {
+            resetSelection(false);
+            mSingleCheckedKey = RecyclerView.NO_ID;
+        }
+        dispatchItemRangeChanged(0, mDataSource.size(), ItemPayload.SELECTION);
+    }
+
+    /**
+     * 区间勾选[start, end]，含两端，顺序不限，不可选item跳过
+     * 整个区间作为一次状态变更：一次payload区间刷新，一次onChoiceChanged回调
+     */
+    public final void setRangeChecked(int start, int end, boolean isChecked) {
+        if (applyRangeChecked(start, end, isChecked)) {
+            notifyChoiceChanged();
+        }
+        mAnchorKey = keyAt(end);
+    }
+
+    /**
+     * shift-click：以锚点item的选中态，勾选／取消[锚点, position]区间，锚点不变
+     * 无锚点时等同于单击切换position
+     */
+    public final void setRangeCheckedFromAnchor(int position) {
+        int anchor = mAnchorKey == RecyclerView.NO_ID ? RecyclerView.NO_POSITION : getPositionForKey(mAnchorKey);
+        if (anchor == RecyclerView.NO_POSITION) {
+            setRangeChecked(position, position, !isItemChecked(position));
+            return;
+        }
+        if (applyRangeChecked(anchor, position, isItemChecked(anchor))) {
+            notifyChoiceChanged();
+        }
+    }
+
+    /**
+     * 应用区间选中态，不回调
+     *
+     * @return 区间是否有效
+     */
+    boolean applyRangeChecked(int start, int end, boolean isChecked) {
+        if (mChoiceMode == CHOICE_MODE_SINGLE) {
+            // 单选模式下区间操作仅作用于end
+            if (end < 0 || end >= mDataSource.size()) {
+                return false;
+            }
+            setSingleItemChecked(end, isChecked);
+            dispatchItemRangeChanged(end, 1, ItemPayload.SELECTION);
+            return true;
+        }
+        int from = Math.max(0, Math.min(start, end));
+        int to = Math.min(mDataSource.size() - 1, Math.max(start, end));
+        if (from > to) {
+            return false;
+        }
+        if (from == 0 && to == mDataSource.size() - 1 && !mFiltered) {
+            // 覆盖整个数据集，O(1)
+            resetSelection(isChecked);
+        } else {
+            for (int i = from; i <= to; i++) {
+                setItemChecked(i, isChecked);
+            }
         }
-        notifyDataSetChanged();
+        dispatchItemRangeChanged(from, to - from + 1, ItemPayload.SELECTION);
+        return true;
+    }
+
+    /**
+     * 全选／取消全选，选中集合重置后淘汰页暂存的记录随之失效
+     */
+    private void resetSelection(boolean selectAll) {
+        if (selectAll) {
+            mSelection.selectAll();
+        } else {
+            mSelection.clear();
+        }
+        mEvictedKeys.clear();
+    }
+
+    void notifyChoiceChanged() {
+        boolean isAllChecked = isAllChecked();
+        if (choiceInterface != null) {
+            choiceInterface.onChoiceChanged(isAllChecked);
+        }
+        mHolderCb.onChoiceChanged(isAllChecked);
+    }
+
+    boolean isCheckedAt(int position) {
+        return isItemChecked(position);
     }
 
     private boolean isAllChecked() {
-        return mSelectionCount == mSelectableCount;
+        return getSelectionCount() == mSelectableCount;
     }
 
+    /**
+     * 按列表顺序返回选中项，过滤中按全量数据的顺序返回，含被过滤掉的选中项
+     */
     public final List<T> getSelectedItems() {
-        List<T> selectedItems = new ArrayList<>();
-        int size = mDataSource.size();
-        for (int i = 0; i < size; i++) {
-            if (isItemChecked(i)) {
-                selectedItems.add(mDataSource.get(i));
+        final List<T> selectedItems = new ArrayList<>(getSelectionCount());
+        if (mFiltered) {
+            List<? extends T> items = getChoiceItems();
+            for (int i = 0, size = items.size(); i < size; i++) {
+                T item = items.get(i);
+                if (item != null && isKeyChecked(mKeyProvider.getItemKey(item))) {
+                    selectedItems.add(item);
+                }
             }
+            return selectedItems;
         }
-
-        /*for (T d : mDataSource) {
-            if (isItemChecked(mDataSource.indexOf(d))) {
-                selectedItems.add(d);
+        forEachSelected(new SelectionVisitor<T>() {
+            @Override
+            public boolean visit(int position, T item) {
+                selectedItems.add(item);
+                return true;
             }
-        }*/
-
+        });
         return selectedItems;
     }
 
+    /**
+     * 按列表顺序遍历选中项，无需构建完整列表
+     * 常规表示仅遍历选中集合O(k log k)；反选表示遍历数据集O(n)
+     * 过滤中只遍历可见的选中项，被过滤掉的选中项见{@link #getSelectedItems()}
+     *
+     * @param visitor 返回false终止遍历
+     */
+    public final void forEachSelected(@NonNull SelectionVisitor<? super T> visitor) {
+        if (mSelection.isInverted()) {
+            for (int i = 0, size = mDataSource.size(); i < size; i++) {
+                if (isItemChecked(i) && !visitor.visit(i, mDataSource.get(i))) {
+                    return;
+                }
+            }
+            return;
+        }
+        long[] keys = mSelection.toKeyArray();
+        int[] positions = new int[keys.length];
+        int count = 0;
+        for (long key : keys) {
+            int position = getPositionForKey(key);
+            if (position != RecyclerView.NO_POSITION) {
+                positions[count++] = position;
+            }
+        }
+        Arrays.sort(positions, 0, count);
+        for (int i = 0; i < count; i++) {
+            if (!visitor.visit(positions[i], mDataSource.get(positions[i]))) {
+                return;
+            }
+        }
+    }
+
     public int getSelectionCount() {
-        return mSelectionCount;
+        return mSelection.size(mSelectableCount);
     }
 
     public int getSelectableCount() {
@@ -307,4 +853,11 @@ public abstract class AbsChoiceAdapter<T> extends BaseRecyclerAdapter<T, ChoiceB
     public interface IAdapterChoiceInterface {
         void onChoiceChanged(boolean isAllChecked);
     }
+
+    public interface SelectionVisitor<T> {
+        /**
+         * @return 是否继续遍历
+         */
+        boolean visit(int position, T item);
+    }
 }
@@ -2,7 +2,10 @@ package com.shendawei.recycler.library.adapter.choice;
 
 import android.view.View;
 
+import androidx.annotation.NonNull;
+
 import com.shendawei.recycler.library.adapter.base.BaseHolder;
+import com.shendawei.recycler.library.adapter.base.ItemPayload;
 
 /**
  * 支持多选模式的holder基类
@@ -19,7 +22,8 @@ import com.shendawei.recycler.library.adapter.base.BaseHolder;
  * 3. 基类非选择模式、或不可选时，点击直接return
  *    基类可选时，通过notifyItemChanged(position, payload)，实现局部刷新选中态
  * 4. 子类通过onBindData(item, position)，实现item展示
- *    子类通过onBindData(item, position, payload)，实现item局部刷新选中态
+ *    子类通过onBindData(item, position, payload)，实现item局部刷新选中态（payload为当前选中态Boolean）
+ *    或覆写bindData(item, position, payloadMask)，按{@link ItemPayload}的flag处理合并后的局部刷新
  * 5. 定义开启／关闭选择模式 isChoiceMode()
  *
  * @author shendawei
@@ -42,10 +46,22 @@ public class ChoiceBaseHolder<T> extends BaseHolder<T, ChoiceCallback> implement
     @Override
     public void onClick(View v) {
         if (!isChoiceMode() || !isItemCheckable()) return;
+        int livePosition = getLivePosition();
         if (isItemChecked()) {
-            holderCheckInterface.onChecked(position, false);
+            holderCheckInterface.onChecked(livePosition, false);
         } else {
-            holderCheckInterface.onChecked(position, true);
+            holderCheckInterface.onChecked(livePosition, true);
+        }
+    }
+
+    /**
+     * 选中态变化时，兼容旧的局部刷新方式，以当前选中态作为payload回调bindData(item, position, payload)
+     */
+    @Override
+    public void bindData(@NonNull T item, int position, int payloadMask) {
+        super.bindData(item, position, payloadMask);
+        if ((payloadMask & ItemPayload.FLAG_CONTENT) == 0 && (payloadMask & ItemPayload.FLAG_SELECTION) != 0) {
+            bindData(item, position, (Object) Boolean.valueOf(isItemChecked()));
         }
     }
 
@@ -81,7 +97,7 @@ public class ChoiceBaseHolder<T> extends BaseHolder<T, ChoiceCallback> implement
         if (holderCheckInterface == null) {
             throw new IllegalArgumentException("holderCheckInterface can't be null!");
         }
-        return holderCheckInterface.isChecked(position);
+        return holderCheckInterface.isChecked(getLivePosition());
     }
 
     /**
@@ -95,7 +111,9 @@ public class ChoiceBaseHolder<T> extends BaseHolder<T, ChoiceCallback> implement
         void onChecked(int position, boolean isChecked);
 
         /**
-         * @param isNotifyItemChanged 用于区分单选、多选时的通知刷新机制
+         * 单选／多选由adapter的choiceMode区分，单选时adapter负责取消并刷新上一个选中项
+         *
+         * @param isNotifyItemChanged 是否局部刷新当前item
          */
         void onChecked(int position, boolean isChecked, boolean isNotifyItemChanged);
 
@@ -0,0 +1,178 @@
+package com.shendawei.recycler.library.adapter.choice;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.shendawei.recycler.library.utils.ScreenUtils;
+
+/**
+ * 拖动多选
+ *
+ * 使用方式
+ * 1. attachToRecyclerView(recyclerView)
+ * 2. 长按item时调用startDragSelection(position)，之后手指滑过的item被设置为起始item的相反状态
+ *
+ * 原理
+ * 1. 每次MOVE仅计算新旧区间的差集，按连续区间调用applyRangeChecked，每个区间一次payload刷新
+ * 2. 一次MOVE最多一次onChoiceChanged回调
+ * 3. 手指靠近列表上下边缘时自动滚动，滚动后按手指位置继续选择
+ * 4. 缩回区间外的item恢复为相反状态
+ *
+ * @author shendawei
+ * @classname DragSelectTouchListener
+ * @date 3/12/23 4:18 PM
+ */
+public class DragSelectTouchListener implements RecyclerView.OnItemTouchListener {
+    private static final int HOTSPOT_DP = 56;
+    private static final int MAX_SCROLL_DP = 16;
+
+    private final AbsChoiceAdapter<?> mAdapter;
+    private RecyclerView mRecyclerView;
+    private int mHotspotHeight;
+    private int mMaxScrollDistance;
+
+    private boolean mActive;
+    private boolean mChecked;
+    private int mStart = RecyclerView.NO_POSITION;
+    private int mEnd = RecyclerView.NO_POSITION;
+    private float mLastX;
+    private float mLastY;
+    private int mScrollDistance;
+
+    private final Runnable mAutoScroller = new Runnable() {
+        @Override
+        public void run() {
+            if (!mActive || mScrollDistance == 0 || mRecyclerView == null) {
+                return;
+            }
+            mRecyclerView.scrollBy(0, mScrollDistance);
+            updateSelection(mLastX, mLastY);
+            mRecyclerView.postOnAnimation(this);
+        }
+    };
+
+    public DragSelectTouchListener(@NonNull AbsChoiceAdapter<?> adapter) {
+        mAdapter = adapter;
+    }
+
+    public void attachToRecyclerView(@NonNull RecyclerView recyclerView) {
+        if (mRecyclerView == recyclerView) {
+            return;
+        }
+        if (mRecyclerView != null) {
+            mRecyclerView.removeOnItemTouchListener(this);
+        }
+        mRecyclerView = recyclerView;
+        mHotspotHeight = ScreenUtils.dip2px(recyclerView.getContext(), HOTSPOT_DP);
+        mMaxScrollDistance = ScreenUtils.dip2px(recyclerView.getContext(), MAX_SCROLL_DP);
+        recyclerView.addOnItemTouchListener(this);
+    }
+
+    /**
+     * 开始拖动选择，一般在item长按时调用
+     *
+     * @param position 起始位置
+     */
+    public void startDragSelection(int position) {
+        if (!mAdapter.isChoiceMode() || mAdapter.isSingleChoiceMode() || position == RecyclerView.NO_POSITION) {
+            return;
+        }
+        mActive = true;
+        mStart = position;
+        mEnd = position;
+        mChecked = !mAdapter.isCheckedAt(position);
+        mAdapter.setRangeChecked(position, position, mChecked);
+    }
+
+    public boolean isDragSelecting() {
+        return mActive;
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+        return mActive;
+    }
+
+    @Override
+    public void onTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+        if (!mActive) {
+            return;
+        }
+        switch (e.getActionMasked()) {
+            case MotionEvent.ACTION_MOVE:
+                mLastX = e.getX();
+                mLastY = e.getY();
+                updateSelection(mLastX, mLastY);
+                updateAutoScroll(rv, mLastY);
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                stop();
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+    }
+
+    private void stop() {
+        mActive = false;
+        mStart = RecyclerView.NO_POSITION;
+        mEnd = RecyclerView.NO_POSITION;
+        mScrollDistance = 0;
+        if (mRecyclerView != null) {
+            mRecyclerView.removeCallbacks(mAutoScroller);
+        }
+    }
+
+    private void updateAutoScroll(RecyclerView rv, float y) {
+        int distance = 0;
+        if (y < mHotspotHeight) {
+            distance = -(int) (mMaxScrollDistance * (1 - Math.max(0, y) / mHotspotHeight));
+        } else if (y > rv.getHeight() - mHotspotHeight) {
+            distance = (int) (mMaxScrollDistance * (1 - Math.max(0, rv.getHeight() - y) / mHotspotHeight));
+        }
+        boolean wasScrolling = mScrollDistance != 0;
+        mScrollDistance = distance;
+        if (distance != 0 && !wasScrolling) {
+            rv.postOnAnimation(mAutoScroller);
+        } else if (distance == 0 && wasScrolling) {
+            rv.removeCallbacks(mAutoScroller);
+        }
+    }
+
+    private void updateSelection(float x, float y) {
+        View child = mRecyclerView.findChildViewUnder(x, y);
+        if (child == null) {
+            return;
+        }
+        int position = mRecyclerView.getChildAdapterPosition(child);
+        if (position == RecyclerView.NO_POSITION || position == mEnd) {
+            return;
+        }
+        int oldFrom = Math.min(mStart, mEnd);
+        int oldTo = Math.max(mStart, mEnd);
+        int newFrom = Math.min(mStart, position);
+        int newTo = Math.max(mStart, position);
+        boolean changed = false;
+        // 新区间多出的部分设置为目标状态，旧区间缩回的部分恢复
+        changed |= applySegment(newFrom, Math.min(newTo, oldFrom - 1), mChecked);
+        changed |= applySegment(Math.max(newFrom, oldTo + 1), newTo, mChecked);
+        changed |= applySegment(oldFrom, Math.min(oldTo, newFrom - 1), !mChecked);
+        changed |= applySegment(Math.max(oldFrom, newTo + 1), oldTo, !mChecked);
+        mEnd = position;
+        if (changed) {
+            mAdapter.notifyChoiceChanged();
+        }
+    }
+
+    private boolean applySegment(int from, int to, boolean checked) {
+        return from <= to && mAdapter.applyRangeChecked(from, to, checked);
+    }
+}
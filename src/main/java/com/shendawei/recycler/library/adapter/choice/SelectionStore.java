@@ -0,0 +1,107 @@
+package com.shendawei.recycler.library.adapter.choice;
+
+import com.shendawei.recycler.library.utils.LongIntMap;
+
+/**
+ * 选中集合，按item key存储，与position无关，增删数据后不会错位
+ * 勾选／取消／查询／计数均为O(1)
+ *
+ * 两种表示：
+ * 常规：mKeys为选中的key
+ * 反选：mKeys为排除的key，即“除mKeys外全部选中”，全选／取消全选O(1)，新加入的item自动选中
+ * 反选模式下不可选item的过滤由adapter负责
+ *
+ * @author shendawei
+ * @classname SelectionStore
+ * @date 3/9/23 10:20 PM
+ */
+final class SelectionStore {
+    private final LongIntMap mKeys = new LongIntMap();
+    private boolean mInverted;
+
+    boolean isSelected(long key) {
+        return mInverted != mKeys.containsKey(key);
+    }
+
+    /**
+     * @return 状态是否发生变化
+     */
+    boolean select(long key) {
+        return mInverted ? mKeys.remove(key) : mKeys.put(key, 0);
+    }
+
+    /**
+     * @return 状态是否发生变化
+     */
+    boolean deselect(long key) {
+        return mInverted ? mKeys.put(key, 0) : mKeys.remove(key);
+    }
+
+    /**
+     * item移出数据集（或变为不可选），清除其记录
+     */
+    void forget(long key) {
+        mKeys.remove(key);
+    }
+
+    /**
+     * @return key是否有记录（常规为选中，反选为排除）
+     */
+    boolean isRecorded(long key) {
+        return mKeys.containsKey(key);
+    }
+
+    /**
+     * 恢复之前通过{@link #isRecorded(long)}判断、并forget的记录，期间表示未切换时有效
+     */
+    void record(long key) {
+        mKeys.put(key, 0);
+    }
+
+    /**
+     * 全选，O(1)
+     */
+    void selectAll() {
+        mKeys.clear();
+        mInverted = true;
+    }
+
+    /**
+     * 取消全选，O(1)
+     */
+    void clear() {
+        mKeys.clear();
+        mInverted = false;
+    }
+
+    boolean isInverted() {
+        return mInverted;
+    }
+
+    /**
+     * @param selectableCount 数据集中可选item数量
+     * @return 选中数量
+     */
+    int size(int selectableCount) {
+        return mInverted ? selectableCount - mKeys.size() : mKeys.size();
+    }
+
+    /**
+     * 常规表示为选中的key，反选表示为排除的key
+     */
+    int keyCount() {
+        return mKeys.size();
+    }
+
+    /**
+     * 拷贝当前记录的所有key（常规为选中，反选为排除），遍历期间可修改集合
+     */
+    long[] toKeyArray() {
+        long[] keys = new long[mKeys.size()];
+        int i = 0;
+        for (int slot = mKeys.nextSlot(-1); slot >= 0; slot = mKeys.nextSlot(slot)) {
+            keys[i++] = mKeys.keyAt(slot);
+        }
+        return keys;
+    }
+}
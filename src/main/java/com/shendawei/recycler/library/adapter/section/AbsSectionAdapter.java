@@ -0,0 +1,301 @@
+package com.shendawei.recycler.library.adapter.section;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.shendawei.recycler.library.adapter.base.BaseHolder;
+import com.shendawei.recycler.library.adapter.base.BaseRecyclerAdapter;
+import com.shendawei.recycler.library.adapter.base.HolderCallback;
+import com.shendawei.recycler.library.utils.FenwickTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 分区adapter基类：每个分区由可选的header行及若干item行组成，扁平存储于mDataSource
+ *
+ * 原理
+ * 1. 各分区行数（header + item）存储在树状数组中，position <-> (section, index)映射O(log n)
+ * 2. 分区方法换算出扁平position后调用基类增删改，通知为精确的区间通知；
+ *    默认开启实时位置模式，插入／删除不刷新尾部，holder通过getLivePosition()获取位置
+ * 3. 直接调用基类的增删方法（addItem、removeItem、PagedSource、postMutation等）时，
+ *    按position所在分区同步维护分区结构：插入到分区header处时归入前一分区，分区行数为0时移除该分区
+ * 4. putItems整体替换数据时，数据作为一个无header的分区
+ *
+ * @author shendawei
+ * @classname AbsSectionAdapter
+ * @date 4/2/23 4:20 PM
+ */
+public abstract class AbsSectionAdapter<T, V extends BaseHolder<? extends T, HCb>, HCb extends HolderCallback>
+        extends BaseRecyclerAdapter<T, V, HCb> {
+    /**
+     * header行在分区内的下标，见{@link #getIndexInSection(int)}
+     */
+    public static final int HEADER_INDEX = -1;
+
+    private static final int NO_SECTION = -1;
+
+    /**
+     * 各分区行数（含header）
+     */
+    private final FenwickTree mSectionSizes = new FenwickTree();
+    /**
+     * 各分区是否有header，与mSectionSizes下标一致
+     */
+    private boolean[] mSectionHeaders = new boolean[8];
+    /**
+     * 分区方法调用基类时指定插入的目标分区，回调中据此维护分区结构
+     */
+    private int mInsertSection = NO_SECTION;
+    private boolean mInsertNewSection;
+    private boolean mInsertNewSectionHeader;
+
+    public AbsSectionAdapter(HCb hcb) {
+        super(hcb);
+        setLivePositionEnabled(true);
+    }
+
+    public int getSectionCount() {
+        return mSectionSizes.size();
+    }
+
+    public boolean hasSectionHeader(int section) {
+        checkSection(section);
+        return mSectionHeaders[section];
+    }
+
+    /**
+     * @return 分区内item数量，不含header
+     */
+    public int getSectionItemCount(int section) {
+        return mSectionSizes.get(section) - (hasSectionHeader(section) ? 1 : 0);
+    }
+
+    /**
+     * position所在分区，O(log n)
+     *
+     * @return position越界时返回RecyclerView.NO_POSITION
+     */
+    public int getSectionForPosition(int position) {
+        if (position < 0 || position >= getItemCount()) {
+            return RecyclerView.NO_POSITION;
+        }
+        return mSectionSizes.indexOf(position);
+    }
+
+    /**
+     * position在所在分区内的item下标，header行返回{@link #HEADER_INDEX}
+     */
+    public int getIndexInSection(int position) {
+        int section = getSectionForPosition(position);
+        if (section == RecyclerView.NO_POSITION) {
+            return RecyclerView.NO_POSITION;
+        }
+        int offset = position - mSectionSizes.prefixSum(section);
+        return mSectionHeaders[section] ? offset - 1 : offset;
+    }
+
+    public boolean isSectionHeader(int position) {
+        return getIndexInSection(position) == HEADER_INDEX;
+    }
+
+    /**
+     * (section, index) -> position，O(log n)
+     *
+     * @param index 分区内item下标，{@link #HEADER_INDEX}表示header
+     */
+    public int getPosition(int section, int index) {
+        checkSection(section);
+        return mSectionSizes.prefixSum(section) + (mSectionHeaders[section] ? 1 : 0) + index;
+    }
+
+    /**
+     * 在末尾添加分区
+     *
+     * @param header 分区header行，null表示无header
+     */
+    public void addSection(@Nullable T header, @NonNull List<? extends T> items) {
+        addSection(getSectionCount(), header, items);
+    }
+
+    /**
+     * 在指定位置插入分区
+     */
+    public void addSection(int section, @Nullable T header, @NonNull List<? extends T> items) {
+        if (section < 0 || section > getSectionCount()) {
+            throw new IndexOutOfBoundsException("section = " + section + ", sectionCount = " + getSectionCount());
+        }
+        List<T> rows = new ArrayList<>(items.size() + 1);
+        if (header != null) {
+            rows.add(header);
+        }
+        rows.addAll(items);
+        if (rows.isEmpty()) {
+            insertSection(section, 0, false);
+            return;
+        }
+        int position = section == getSectionCount() ? getItemCount() : mSectionSizes.prefixSum(section);
+        mInsertSection = section;
+        mInsertNewSection = true;
+        mInsertNewSectionHeader = header != null;
+        try {
+            insertRows(position, rows);
+        } finally {
+            mInsertSection = NO_SECTION;
+            mInsertNewSection = false;
+        }
+    }
+
+    /**
+     * 移除分区及其所有行
+     */
+    public void removeSection(int section) {
+        checkSection(section);
+        int size = mSectionSizes.get(section);
+        if (size == 0) {
+            removeSectionEntry(section);
+            return;
+        }
+        int start = mSectionSizes.prefixSum(section);
+        removeItemsRange(start, start + size - 1);
+    }
+
+    public void addSectionItem(int section, T item) {
+        addSectionItems(section, getSectionItemCount(section), Collections.singletonList(item));
+    }
+
+    /**
+     * 在分区内指定下标插入item
+     */
+    public void addSectionItems(int section, int index, @NonNull List<? extends T> items) {
+        if (index < 0 || index > getSectionItemCount(section)) {
+            throw new IndexOutOfBoundsException("index = " + index + ", sectionItemCount = " + getSectionItemCount(section));
+        }
+        if (items.isEmpty()) {
+            return;
+        }
+        mInsertSection = section;
+        try {
+            insertRows(getPosition(section, index), items);
+        } finally {
+            mInsertSection = NO_SECTION;
+        }
+    }
+
+    public void removeSectionItem(int section, int index) {
+        checkSectionItem(section, index);
+        removeItem(getPosition(section, index));
+    }
+
+    public void replaceSectionItem(int section, int index, T item) {
+        checkSectionItem(section, index);
+        replaceItem(getPosition(section, index), item);
+    }
+
+    @Nullable
+    public T getSectionItem(int section, int index) {
+        checkSectionItem(section, index);
+        return mDataSource.get(getPosition(section, index));
+    }
+
+    private void insertRows(int position, List<? extends T> rows) {
+        if (position == getItemCount()) {
+            addItems(rows);
+        } else {
+            addItems(position, rows);
+        }
+    }
+
+    @Override
+    protected void onItemsReplacing(@NonNull List<? extends T> newItems) {
+        super.onItemsReplacing(newItems);
+        mSectionSizes.clear();
+        if (!newItems.isEmpty()) {
+            insertSection(0, newItems.size(), false);
+        }
+    }
+
+    @Override
+    protected void onItemsInserted(int position, @NonNull List<? extends T> items) {
+        super.onItemsInserted(position, items);
+        int count = items.size();
+        if (mInsertNewSection) {
+            insertSection(mInsertSection, count, mInsertNewSectionHeader);
+            return;
+        }
+        if (mInsertSection != NO_SECTION) {
+            mSectionSizes.add(mInsertSection, count);
+            return;
+        }
+        // 基类方法直接插入：按position归入分区
+        int sectionCount = getSectionCount();
+        if (sectionCount == 0) {
+            insertSection(0, count, false);
+            return;
+        }
+        int section = mSectionSizes.indexOf(position);
+        if (section < sectionCount && position == mSectionSizes.prefixSum(section) && mSectionHeaders[section]) {
+            // 插入在header处：归入前一分区末尾，第一个分区之前则新建无header分区
+            if (section == 0) {
+                insertSection(0, count, false);
+                return;
+            }
+            section--;
+        } else if (section == sectionCount) {
+            section = sectionCount - 1;
+        }
+        mSectionSizes.add(section, count);
+    }
+
+    @Override
+    protected void onItemsRemoved(int position, @NonNull List<? extends T> removedItems) {
+        super.onItemsRemoved(position, removedItems);
+        int remaining = removedItems.size();
+        while (remaining > 0) {
+            int section = mSectionSizes.indexOf(position);
+            int start = mSectionSizes.prefixSum(section);
+            int size = mSectionSizes.get(section);
+            int count = Math.min(remaining, start + size - position);
+            if (position == start && mSectionHeaders[section]) {
+                mSectionHeaders[section] = false;
+            }
+            if (count == size) {
+                removeSectionEntry(section);
+            } else {
+                mSectionSizes.add(section, -count);
+            }
+            remaining -= count;
+        }
+    }
+
+    private void insertSection(int section, int size, boolean hasHeader) {
+        int count = mSectionSizes.size();
+        if (count == mSectionHeaders.length) {
+            mSectionHeaders = Arrays.copyOf(mSectionHeaders, count * 2);
+        }
+        System.arraycopy(mSectionHeaders, section, mSectionHeaders, section + 1, count - section);
+        mSectionHeaders[section] = hasHeader;
+        mSectionSizes.insert(section, size);
+    }
+
+    private void removeSectionEntry(int section) {
+        int count = mSectionSizes.size();
+        System.arraycopy(mSectionHeaders, section + 1, mSectionHeaders, section, count - section - 1);
+        mSectionSizes.remove(section);
+    }
+
+    private void checkSection(int section) {
+        if (section < 0 || section >= getSectionCount()) {
+            throw new IndexOutOfBoundsException("section = " + section + ", sectionCount = " + getSectionCount());
+        }
+    }
+
+    private void checkSectionItem(int section, int index) {
+        if (index < 0 || index >= getSectionItemCount(section)) {
+            throw new IndexOutOfBoundsException("index = " + index + ", sectionItemCount = " + getSectionItemCount(section));
+        }
+    }
+}
@@ -5,7 +5,9 @@ import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 
 import com.shendawei.recycler.library.adapter.base.BaseRecyclerAdapter;
+import com.shendawei.recycler.library.adapter.base.ItemPayload;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -16,6 +18,8 @@ import java.util.List;
  *  正常创建方式：因内置Factory机制，通过{@link #generateFactories()}
  *  手动创建方式：子类onCreateViewHolder，传统方式new holder
  * 基本方法：【增】【删】【改】维护
+ * 列式样式：{@link #setColumnarStyleEnabled(boolean)}开启后数据集改为{@link StyleColumns}，不保留StyleModel对象，
+ *  样式字段加入时解析为按position索引的基本类型数组，getItemViewType与样式绑定只读数组，适用于大数据量的配置化页面
  *
  * @author shendawei
  * @classname AbsStyleAdapter
@@ -27,14 +31,43 @@ public abstract class AbsStyleAdapter<S extends StyleCallback> extends BaseRecyc
     //BaseRecyclerAdapter.mFactories = "{}"
 //    protected SparseArray<StyleHolder.Factory<? extends StyleModel<?>, S>> mFactories = new SparseArray<>();
 
+    /**
+     * 列式样式存储，开启时即为mDataSource，未开启时为null
+     */
+    private StyleColumns mStyleColumns;
+
     public AbsStyleAdapter(S hcb) {
         super(hcb);
     }
 
+    /**
+     * 开启列式样式存储，已有数据原样转存
+     * 开启后{@link #getItems()}、{@link #getItemForKey(long)}等返回按列生成的StyleModel副本，修改副本不会写回；
+     * item key须由key或m派生（如{@link StyleModel#KEY_PROVIDER}），不能使用按对象分配key的IdentityItemKeyProvider
+     *
+     * @param enabled 默认关闭
+     */
+    public void setColumnarStyleEnabled(boolean enabled) {
+        if (enabled == (mStyleColumns != null)) {
+            return;
+        }
+        if (enabled) {
+            mStyleColumns = new StyleColumns(mDataSource);
+            mDataSource = mStyleColumns;
+        } else {
+            mDataSource = new ArrayList<StyleModel<?>>(mStyleColumns);
+            mStyleColumns = null;
+        }
+    }
+
+    public boolean isColumnarStyleEnabled() {
+        return mStyleColumns != null;
+    }
+
     @NonNull
     @Override
     public StyleHolder<StyleModel<?>, S> onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        StyleHolder.Factory<StyleModel<?>, S> factory = (StyleHolder.Factory<StyleModel<?>, S>) mFactories.get(viewType);
+        StyleHolder.Factory<StyleModel<?>, S> factory = (StyleHolder.Factory<StyleModel<?>, S>) mFactories.get(unmapViewType(viewType));
         if (factory == null) {
             throw new RuntimeException("No factory found with type equals " + viewType);
         }
@@ -43,23 +76,87 @@ public abstract class AbsStyleAdapter<S extends StyleCallback> extends BaseRecyc
 
     @Override
     public void onBindViewHolder(@NonNull StyleHolder<StyleModel<?>, S> holder, int position) {
-        holder.bindData(mDataSource.get(position), position);
+        attachHolder(holder);
+        onBindPosition(position);
+        holder.setStyleRow(mStyleColumns, position);
+        StyleModel<?> model = mDataSource.get(position);
+        if (model == null) {
+            holder.bindPlaceholder(position);
+            return;
+        }
+        holder.bindData(model, position);
     }
 
     @Override
     public void onBindViewHolder(@NonNull StyleHolder<StyleModel<?>, S> holder, int position, @NonNull List<Object> payloads) {
         if (payloads.isEmpty()) {
             onBindViewHolder(holder, position);
-        } else {
-            if (payloads.get(0) != null) {
-                holder.bindData(mDataSource.get(position), position, payloads.get(0));
+            return;
+        }
+        attachHolder(holder);
+        onBindPosition(position);
+        holder.setStyleRow(mStyleColumns, position);
+        StyleModel<?> model = mDataSource.get(position);
+        if (model == null) {
+            holder.bindPlaceholder(position);
+            return;
+        }
+        // 其他payload对象逐个回调；所有ItemPayload（含StyleChange）合并为一个mask一次绑定
+        for (int i = 0, size = payloads.size(); i < size; i++) {
+            Object payload = payloads.get(i);
+            if (payload != null && !(payload instanceof ItemPayload)) {
+                holder.bindData(model, position, payload);
+            }
+        }
+        int payloadMask = ItemPayload.merge(payloads);
+        if (payloadMask != 0) {
+            holder.bindData(model, position, payloadMask);
+        }
+    }
+
+    /**
+     * model样式字段修改后调用，重新编译样式并局部刷新对应属性
+     *
+     * @param position 位置
+     * @param change   变化的样式属性
+     */
+    public void notifyStyleChanged(int position, @NonNull StyleChange change) {
+        if (mStyleColumns == null) {
+            StyleModel<?> model = mDataSource.get(position);
+            if (model != null) {
+                model.invalidateStyle();
             }
         }
+        dispatchItemRangeChanged(position, 1, change);
+    }
+
+    /**
+     * 同{@link #notifyStyleChanged(int, StyleChange)}，列式存储下将model的样式字段写入对应行
+     * 列式存储时getItem返回的是副本，修改副本的样式字段后须通过此方法提交
+     *
+     * @param position 位置
+     * @param model    修改后的item，itemType、key、m不会被更新
+     * @param change   变化的样式属性
+     */
+    public void notifyStyleChanged(int position, @NonNull StyleModel<?> model, @NonNull StyleChange change) {
+        if (mStyleColumns != null) {
+            mStyleColumns.setStyle(position, model);
+        }
+        notifyStyleChanged(position, change);
     }
 
     @Override
     public int getItemViewType(int position) {
+        if (mStyleColumns != null) {
+            if (mStyleColumns.isPlaceholderAt(position)) {
+                return mapViewType(getPlaceholderViewType());
+            }
+            return mapViewType(mStyleColumns.itemTypeAt(position));
+        }
         StyleModel<?> model = mDataSource.get(position);
-        return model != null ? model.itemType : super.getItemViewType(position);
+        if (model == null) {
+            return mapViewType(getPlaceholderViewType());
+        }
+        return mapViewType(model.itemType);
     }
 }
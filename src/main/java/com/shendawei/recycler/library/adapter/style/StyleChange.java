@@ -0,0 +1,43 @@
+package com.shendawei.recycler.library.adapter.style;
+
+import com.shendawei.recycler.library.adapter.base.ItemPayload;
+
+/**
+ * 样式变化payload，仅重新应用变化的属性
+ * 用法：model修改样式字段后调用{@link AbsStyleAdapter#notifyStyleChanged(int, StyleChange)}
+ * flag与{@link ItemPayload}的样式位一致，可与其他payload合并为一个mask
+ *
+ * @author shendawei
+ * @classname StyleChange
+ * @date 3/18/23 3:26 PM
+ */
+public final class StyleChange extends ItemPayload {
+    public static final int FLAG_BACKGROUND = ItemPayload.FLAG_STYLE_BACKGROUND;
+    public static final int FLAG_PADDING = ItemPayload.FLAG_STYLE_PADDING;
+    public static final int FLAG_ALL = FLAG_BACKGROUND | FLAG_PADDING;
+
+    public static final StyleChange BACKGROUND = new StyleChange(FLAG_BACKGROUND);
+    public static final StyleChange PADDING = new StyleChange(FLAG_PADDING);
+    public static final StyleChange ALL = new StyleChange(FLAG_ALL);
+
+    public final int flags;
+
+    private StyleChange(int flags) {
+        super(flags);
+        this.flags = flags;
+    }
+
+    /**
+     * @return 对应flags的共享实例
+     */
+    public static StyleChange of(int flags) {
+        switch (flags & FLAG_ALL) {
+            case FLAG_BACKGROUND:
+                return BACKGROUND;
+            case FLAG_PADDING:
+                return PADDING;
+            default:
+                return ALL;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.shendawei.recycler.library.adapter.style;
+
+import androidx.annotation.NonNull;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * StyleModel的列式存储，作为{@link AbsStyleAdapter}开启列式样式后的数据集
+ * 每行只保留主数据m与key，itemType、颜色、圆角、内边距等样式字段加入时解析为按position索引的基本类型数组，不保留StyleModel对象；
+ * getItemViewType与样式绑定直接读取数组，圆角以dp存储，绑定时按Context的density转为px
+ *
+ * 注意
+ * 1. get返回按列生成的StyleModel副本，修改副本的字段不会写回，样式修改见{@link AbsStyleAdapter#notifyStyleChanged(int, StyleModel, StyleChange)}
+ * 2. 副本每次get都是新对象，indexOf按key与m定位；不要使用{@link com.shendawei.recycler.library.adapter.base.IdentityItemKeyProvider}
+ * 3. 背景颜色存储为解析后的颜色值，副本的backgroundColor为"#AARRGGBB"
+ *
+ * @author shendawei
+ * @classname StyleColumns
+ * @date 3/27/23 9:40 PM
+ */
+final class StyleColumns extends AbstractList<StyleModel<?>> implements RandomAccess {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final StyleModel.CornerType[] CORNER_TYPES = StyleModel.CornerType.values();
+    /**
+     * 圆角类型存储为ordinal + 1，0表示未设置
+     */
+    private static final byte NO_CORNER = 0;
+    /**
+     * 行标记：非占位行、设置了内边距、展示阴影
+     */
+    private static final byte FLAG_PRESENT = 1;
+    private static final byte FLAG_PADDING = 1 << 1;
+    private static final byte FLAG_SHADOW = 1 << 2;
+
+    private int mSize;
+    private Object[] mModels;
+    private long[] mKeys;
+    private int[] mItemTypes;
+    private byte[] mFlags;
+    private byte[] mCornerTypes;
+    /**
+     * 圆角半径dp
+     */
+    private float[] mRadii;
+    private int[] mColors;
+    private int[] mBackgroundResources;
+    /**
+     * 每行4个：left、top、right、bottom
+     */
+    private int[] mPaddings;
+
+    StyleColumns(@NonNull Collection<? extends StyleModel<?>> models) {
+        allocate(Math.max(INITIAL_CAPACITY, models.size()));
+        addAll(models);
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @return 按列生成的副本，占位行返回null
+     */
+    @Override
+    public StyleModel<?> get(int index) {
+        checkIndex(index);
+        byte flags = mFlags[index];
+        if ((flags & FLAG_PRESENT) == 0) {
+            return null;
+        }
+        StyleModel<Object> model = new StyleModel<>();
+        model.m = mModels[index];
+        model.key = mKeys[index];
+        model.itemType = mItemTypes[index];
+        model.cornerType = cornerTypeAt(index);
+        model.radius = mRadii[index];
+        model.backgroundColor = String.format("#%08X", mColors[index]);
+        model.backgroundResource = mBackgroundResources[index];
+        model.hasShadow = (flags & FLAG_SHADOW) != 0;
+        if ((flags & FLAG_PADDING) != 0) {
+            int offset = index * 4;
+            model.padding = new StyleModel.Padding()
+                    .ofLeft(mPaddings[offset])
+                    .ofTop(mPaddings[offset + 1])
+                    .ofRight(mPaddings[offset + 2])
+                    .ofBottom(mPaddings[offset + 3]);
+        }
+        return model;
+    }
+
+    @Override
+    public StyleModel<?> set(int index, StyleModel<?> model) {
+        StyleModel<?> old = get(index);
+        write(index, model);
+        return old;
+    }
+
+    @Override
+    public void add(int index, StyleModel<?> model) {
+        checkIndexForAdd(index);
+        openGap(index, 1);
+        write(index, model);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends StyleModel<?>> models) {
+        return addAll(mSize, models);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends StyleModel<?>> models) {
+        checkIndexForAdd(index);
+        Object[] array = models.toArray();
+        openGap(index, array.length);
+        for (int i = 0; i < array.length; i++) {
+            write(index + i, (StyleModel<?>) array[i]);
+        }
+        return array.length != 0;
+    }
+
+    @Override
+    public StyleModel<?> remove(int index) {
+        StyleModel<?> old = get(index);
+        closeGap(index, index + 1);
+        return old;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        closeGap(fromIndex, toIndex);
+    }
+
+    @Override
+    public void clear() {
+        closeGap(0, mSize);
+    }
+
+    /**
+     * 副本不能按引用比较，按key与m定位
+     */
+    @Override
+    public int indexOf(Object o) {
+        for (int i = 0; i < mSize; i++) {
+            if (matches(i, o)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        for (int i = mSize - 1; i >= 0; i--) {
+            if (matches(i, o)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 只重新解析一行的样式字段，itemType、key、m不变
+     */
+    void setStyle(int index, @NonNull StyleModel<?> model) {
+        checkIndex(index);
+        mCornerTypes[index] = model.cornerType == null ? NO_CORNER : (byte) (model.cornerType.ordinal() + 1);
+        mRadii[index] = model.radius;
+        mColors[index] = StyleSpec.resolveColor(model.backgroundColor);
+        mBackgroundResources[index] = model.backgroundResource;
+        byte flags = FLAG_PRESENT;
+        if (model.hasShadow) {
+            flags |= FLAG_SHADOW;
+        }
+        StyleModel.Padding padding = model.padding;
+        if (padding != null) {
+            flags |= FLAG_PADDING;
+            int offset = index * 4;
+            mPaddings[offset] = padding.left;
+            mPaddings[offset + 1] = padding.top;
+            mPaddings[offset + 2] = padding.right;
+            mPaddings[offset + 3] = padding.bottom;
+        }
+        mFlags[index] = flags;
+    }
+
+    boolean isPlaceholderAt(int index) {
+        return (mFlags[index] & FLAG_PRESENT) == 0;
+    }
+
+    int itemTypeAt(int index) {
+        return mItemTypes[index];
+    }
+
+    /**
+     * @return 未设置时返回null
+     */
+    StyleModel.CornerType cornerTypeAt(int index) {
+        byte type = mCornerTypes[index];
+        return type == NO_CORNER ? null : CORNER_TYPES[type - 1];
+    }
+
+    /**
+     * @return 圆角半径dp，0为未设置
+     */
+    float radiusAt(int index) {
+        return mRadii[index];
+    }
+
+    int colorAt(int index) {
+        return mColors[index];
+    }
+
+    int backgroundResourceAt(int index) {
+        return mBackgroundResources[index];
+    }
+
+    boolean hasPaddingAt(int index) {
+        return (mFlags[index] & FLAG_PADDING) != 0;
+    }
+
+    int paddingLeftAt(int index) {
+        return mPaddings[index * 4];
+    }
+
+    int paddingTopAt(int index) {
+        return mPaddings[index * 4 + 1];
+    }
+
+    int paddingRightAt(int index) {
+        return mPaddings[index * 4 + 2];
+    }
+
+    int paddingBottomAt(int index) {
+        return mPaddings[index * 4 + 3];
+    }
+
+    private boolean matches(int index, Object o) {
+        if (o == null) {
+            return isPlaceholderAt(index);
+        }
+        if (!(o instanceof StyleModel) || isPlaceholderAt(index)) {
+            return false;
+        }
+        StyleModel<?> model = (StyleModel<?>) o;
+        Object m = mModels[index];
+        return model.key == mKeys[index] && (m == model.m || (m != null && m.equals(model.m)));
+    }
+
+    /**
+     * 解析一行，model为null（占位行）时清空主数据
+     */
+    private void write(int index, StyleModel<?> model) {
+        if (model == null) {
+            mModels[index] = null;
+            mKeys[index] = 0;
+            mItemTypes[index] = 0;
+            mFlags[index] = 0;
+            return;
+        }
+        mModels[index] = model.m;
+        mKeys[index] = model.key;
+        mItemTypes[index] = model.itemType;
+        setStyle(index, model);
+    }
+
+    private void openGap(int index, int count) {
+        if (count == 0) {
+            return;
+        }
+        modCount++;
+        ensureCapacity(mSize + count);
+        int tail = mSize - index;
+        if (tail > 0) {
+            int to = index + count;
+            System.arraycopy(mModels, index, mModels, to, tail);
+            System.arraycopy(mKeys, index, mKeys, to, tail);
+            System.arraycopy(mItemTypes, index, mItemTypes, to, tail);
+            System.arraycopy(mFlags, index, mFlags, to, tail);
+            System.arraycopy(mCornerTypes, index, mCornerTypes, to, tail);
+            System.arraycopy(mRadii, index, mRadii, to, tail);
+            System.arraycopy(mColors, index, mColors, to, tail);
+            System.arraycopy(mBackgroundResources, index, mBackgroundResources, to, tail);
+            System.arraycopy(mPaddings, index * 4, mPaddings, to * 4, tail * 4);
+        }
+        mSize += count;
+    }
+
+    private void closeGap(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) {
+            return;
+        }
+        modCount++;
+        int tail = mSize - toIndex;
+        if (tail > 0) {
+            System.arraycopy(mModels, toIndex, mModels, fromIndex, tail);
+            System.arraycopy(mKeys, toIndex, mKeys, fromIndex, tail);
+            System.arraycopy(mItemTypes, toIndex, mItemTypes, fromIndex, tail);
+            System.arraycopy(mFlags, toIndex, mFlags, fromIndex, tail);
+            System.arraycopy(mCornerTypes, toIndex, mCornerTypes, fromIndex, tail);
+            System.arraycopy(mRadii, toIndex, mRadii, fromIndex, tail);
+            System.arraycopy(mColors, toIndex, mColors, fromIndex, tail);
+            System.arraycopy(mBackgroundResources, toIndex, mBackgroundResources, fromIndex, tail);
+            System.arraycopy(mPaddings, toIndex * 4, mPaddings, fromIndex * 4, tail * 4);
+        }
+        int newSize = mSize - (toIndex - fromIndex);
+        // 释放移出的主数据
+        Arrays.fill(mModels, newSize, mSize, null);
+        mSize = newSize;
+    }
+
+    private void allocate(int capacity) {
+        mModels = new Object[capacity];
+        mKeys = new long[capacity];
+        mItemTypes = new int[capacity];
+        mFlags = new byte[capacity];
+        mCornerTypes = new byte[capacity];
+        mRadii = new float[capacity];
+        mColors = new int[capacity];
+        mBackgroundResources = new int[capacity];
+        mPaddings = new int[capacity * 4];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= mModels.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, mModels.length * 2);
+        mModels = Arrays.copyOf(mModels, newLength);
+        mKeys = Arrays.copyOf(mKeys, newLength);
+        mItemTypes = Arrays.copyOf(mItemTypes, newLength);
+        mFlags = Arrays.copyOf(mFlags, newLength);
+        mCornerTypes = Arrays.copyOf(mCornerTypes, newLength);
+        mRadii = Arrays.copyOf(mRadii, newLength);
+        mColors = Arrays.copyOf(mColors, newLength);
+        mBackgroundResources = Arrays.copyOf(mBackgroundResources, newLength);
+        mPaddings = Arrays.copyOf(mPaddings, newLength * 4);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+    }
+
+    private void checkIndexForAdd(int index) {
+        if (index < 0 || index > mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.shendawei.recycler.library.adapter.style;
+
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+/**
+ * holder背景drawable缓存
+ * 按（圆角类型、圆角半径px、背景颜色）缓存GradientDrawable的ConstantState，
+ * 相同样式的holder共享同一份state，避免每次bind创建radii数组及GradientDrawable
+ *
+ * 注意：返回的drawable共享state，如需修改须先调用mutate()
+ *
+ * @author shendawei
+ * @classname StyleDrawableCache
+ * @date 3/14/23 11:02 PM
+ */
+public final class StyleDrawableCache {
+    public static final long NO_KEY = -1;
+    private static final int MAX_SIZE = 64;
+
+    private static final LruCache<Long, Drawable.ConstantState> sCache = new LruCache<>(MAX_SIZE);
+
+    private StyleDrawableCache() {
+    }
+
+    /**
+     * 样式key：颜色占低32位，半径占32~55位，圆角类型占56~63位
+     */
+    public static long keyOf(@NonNull StyleModel.CornerType cornerType, int cornerRadius, int backgroundColor) {
+        return ((long) (cornerType.ordinal() + 1) << 56)
+                | ((long) (cornerRadius & 0xFFFFFF) << 32)
+                | (backgroundColor & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 获取共享state的背景drawable，未命中时创建并缓存
+     */
+    @NonNull
+    public static Drawable obtain(long key, @NonNull StyleModel.CornerType cornerType, int cornerRadius, int backgroundColor) {
+        Drawable.ConstantState state = sCache.get(key);
+        if (state == null) {
+            Drawable drawable = create(cornerType, cornerRadius, backgroundColor);
+            state = drawable.getConstantState();
+            if (state == null) {
+                return drawable;
+            }
+            sCache.put(key, state);
+        }
+        return state.newDrawable();
+    }
+
+    public static void clear() {
+        sCache.evictAll();
+    }
+
+    private static Drawable create(StyleModel.CornerType cornerType, int cornerRadius, int backgroundColor) {
+        float r = cornerRadius;
+        float[] radii = null;
+        switch (cornerType) {
+            case topCorner:
+                radii = new float[]{r, r, r, r, 0, 0, 0, 0};
+                break;
+            case bottomCorner:
+                radii = new float[]{0, 0, 0, 0, r, r, r, r};
+                break;
+            case allCorner:
+                radii = new float[]{r, r, r, r, r, r, r, r};
+                break;
+            case noneCorner:
+                radii = new float[]{0, 0, 0, 0, 0, 0, 0, 0};
+                break;
+        }
+        GradientDrawable d = new GradientDrawable();
+        d.setShape(GradientDrawable.RECTANGLE);
+        d.setColor(backgroundColor);
+        d.setCornerRadii(radii);
+        return d;
+    }
+}
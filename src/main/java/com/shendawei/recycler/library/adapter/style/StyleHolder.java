@@ -1,9 +1,6 @@
 package com.shendawei.recycler.library.adapter.style;
 
-import android.graphics.Color;
-import android.graphics.drawable.GradientDrawable;
-import android.text.TextUtils;
-import android.view.LayoutInflater;
+import android.graphics.drawable.Drawable;
 import android.view.View;
 import android.view.ViewGroup;
 
@@ -11,7 +8,7 @@ import androidx.annotation.DrawableRes;
 import androidx.annotation.NonNull;
 
 import com.shendawei.recycler.library.adapter.base.BaseHolder;
-import com.shendawei.recycler.library.utils.ScreenUtils;
+import com.shendawei.recycler.library.adapter.base.ItemPayload;
 
 /**
  * @author shendawei
@@ -20,65 +17,127 @@ import com.shendawei.recycler.library.utils.ScreenUtils;
  * @date 2020/7/17 20:16
  */
 public abstract class StyleHolder<T extends StyleModel<?>, Cb extends StyleCallback> extends BaseHolder<T, Cb> {
+    /**
+     * 当前背景的样式key（或背景res）及drawable，用于跳过重复设置
+     */
+    private long mBackgroundKey = StyleDrawableCache.NO_KEY;
+    @DrawableRes
+    private int mBackgroundResource;
+    private Drawable mAppliedBackground;
+    /**
+     * adapter开启列式样式时非空，样式从mStyleRow行的基本类型数组读取，仅在绑定期间有效
+     */
+    private StyleColumns mStyleColumns;
+    private int mStyleRow;
 
     public StyleHolder(View itemView, Cb holderCb) {
         super(itemView, holderCb);
     }
 
+    /**
+     * 由adapter在绑定前设置，columns为null时样式取自item编译后的StyleSpec
+     */
+    void setStyleRow(StyleColumns columns, int row) {
+        mStyleColumns = columns;
+        mStyleRow = row;
+    }
+
     @Override
     public void bindData(@NonNull T item, int position) {
         super.bindData(item, position);
-        if (getBackgroundResource() != 0) {
-            setBackGround(getBackgroundResource());
-        } else {
-            setBackground(getCornerType(), getCornerRadius(), getBackgroundColor());
+        applyStyle(StyleChange.FLAG_ALL);
+    }
+
+    /**
+     * 合并payload局部刷新：样式flag只重新应用对应属性，不触发子类bindData
+     */
+    @Override
+    public void bindData(@NonNull T item, int position, int payloadMask) {
+        super.bindData(item, position, payloadMask);
+        if ((payloadMask & ItemPayload.FLAG_CONTENT) == 0 && (payloadMask & StyleChange.FLAG_ALL) != 0) {
+            applyStyle(payloadMask & StyleChange.FLAG_ALL);
         }
-        setPadding(getPadding());
     }
 
     /**
-     * 设置自定义背景
+     * 应用样式，与当前已应用的样式相同时跳过，避免重复requestLayout／invalidate
+     * 样式取自编译后的StyleSpec，列式存储时取自基本类型数组；子类覆写getter返回不同的值时以getter为准
+     */
+    private void applyStyle(int flags) {
+        StyleSpec spec = mStyleColumns == null ? getStyleSpec() : null;
+        if ((flags & StyleChange.FLAG_BACKGROUND) != 0) {
+            int backgroundResource = getBackgroundResource();
+            if (backgroundResource != 0) {
+                setBackGround(backgroundResource);
+            } else {
+                StyleModel.CornerType cornerType = getCornerType();
+                int cornerRadius = getCornerRadius();
+                int backgroundColor = getBackgroundColor();
+                if (spec != null && cornerType == spec.cornerType && cornerRadius == spec.cornerRadius && backgroundColor == spec.backgroundColor) {
+                    setBackground(spec.backgroundKey, cornerType, cornerRadius, backgroundColor);
+                } else if (cornerType != null) {
+                    setBackground(StyleDrawableCache.keyOf(cornerType, cornerRadius, backgroundColor),
+                            cornerType, cornerRadius, backgroundColor);
+                }
+            }
+        }
+        if ((flags & StyleChange.FLAG_PADDING) != 0) {
+            StyleModel.Padding padding = getPadding();
+            if (padding == item.padding) {
+                if (spec == null) {
+                    if (mStyleColumns.hasPaddingAt(mStyleRow)) {
+                        setPadding(mStyleColumns.paddingLeftAt(mStyleRow), mStyleColumns.paddingTopAt(mStyleRow),
+                                mStyleColumns.paddingRightAt(mStyleRow), mStyleColumns.paddingBottomAt(mStyleRow));
+                    }
+                } else if (spec.hasPadding) {
+                    setPadding(spec.paddingLeft, spec.paddingTop, spec.paddingRight, spec.paddingBottom);
+                }
+            } else if (padding != null) {
+                setPadding(padding.left, padding.top, padding.right, padding.bottom);
+            }
+        }
+    }
+
+    /**
+     * 设置自定义背景，当前已是该背景时跳过
      * @param bgRes res
      */
     private void setBackGround(@DrawableRes int bgRes) {
+        if (bgRes == mBackgroundResource && itemView.getBackground() == mAppliedBackground) {
+            return;
+        }
         itemView.setBackgroundResource(bgRes);
+        mBackgroundResource = bgRes;
+        mBackgroundKey = StyleDrawableCache.NO_KEY;
+        mAppliedBackground = itemView.getBackground();
     }
 
     /**
      * 设置背景圆角
+     * drawable取自StyleDrawableCache共享缓存；当前背景已是相同样式时跳过设置
+     * @param key 样式key，{@link StyleDrawableCache#keyOf}，cornerType为null时为NO_KEY
      * @param cornerType 背景圆角类型
      * @param cornerRadius 背景圆角
      * @param backgroundColor 背景颜色
      */
-    private void setBackground(StyleModel.CornerType cornerType, int cornerRadius, int backgroundColor) {
+    private void setBackground(long key, StyleModel.CornerType cornerType, int cornerRadius, int backgroundColor) {
         if (cornerType == null) return;
-        float[] radii = null;
-        int r = cornerRadius;
-        switch (cornerType) {
-            case topCorner:
-                radii = new float[]{r, r, r, r, 0, 0, 0, 0};
-                break;
-            case bottomCorner:
-                radii = new float[]{0, 0, 0, 0, r, r, r, r};
-                break;
-            case allCorner:
-                radii = new float[]{r, r, r, r, r, r, r, r};
-                break;
-            case noneCorner:
-                radii = new float[]{0, 0, 0, 0, 0, 0, 0, 0};
-                break;
+        if (key == mBackgroundKey && itemView.getBackground() == mAppliedBackground) {
+            return;
         }
-        GradientDrawable d = new GradientDrawable();
-        d.setShape(GradientDrawable.RECTANGLE);
-        d.setColor(backgroundColor);
-        d.setCornerRadii(radii);
+        Drawable d = StyleDrawableCache.obtain(key, cornerType, cornerRadius, backgroundColor);
         itemView.setBackground(d);
+        mBackgroundResource = 0;
+        mBackgroundKey = key;
+        mAppliedBackground = d;
     }
 
-    private void setPadding(StyleModel.Padding padding) {
-        if (padding == null) return;
-
-        itemView.setPadding(padding.left, padding.top, padding.right, padding.bottom);
+    private void setPadding(int left, int top, int right, int bottom) {
+        if (itemView.getPaddingLeft() == left && itemView.getPaddingTop() == top
+                && itemView.getPaddingRight() == right && itemView.getPaddingBottom() == bottom) {
+            return;
+        }
+        itemView.setPadding(left, top, right, bottom);
     }
 
     /**
@@ -91,51 +150,59 @@ public abstract class StyleHolder<T extends StyleModel<?>, Cb extends StyleCallb
 
     /**
      * 采用protected，可在holder子类中实现属性
-     * 亦可从item获取配置的属性
+     * 亦可从item获取配置的属性，默认取自编译后的样式
      */
     protected StyleModel.CornerType getCornerType() {
-        return item.cornerType;
+        if (mStyleColumns != null) {
+            return mStyleColumns.cornerTypeAt(mStyleRow);
+        }
+        return getStyleSpec().cornerType;
     }
 
     /**
      * 采用protected，可在holder子类中实现属性
-     * 亦可从item获取配置的属性
+     * 亦可从item获取配置的属性，默认取自编译后的样式，已解析为px
      */
     protected int getCornerRadius() {
-        if (item.radius != 0) {
-            return ScreenUtils.dip2px(context, item.radius);
+        if (mStyleColumns != null) {
+            return StyleSpec.resolveRadius(context, mStyleColumns.radiusAt(mStyleRow));
         }
-        return ScreenUtils.dip2px(context, 6);
+        return getStyleSpec().cornerRadius;
     }
 
     /**
      * 采用protected，可在holder子类中实现属性
-     * 亦可从item获取配置的属性
+     * 亦可从item获取配置的属性，默认取自编译后的样式，已解析为颜色值
      */
     protected int getBackgroundColor() {
-        if (!TextUtils.isEmpty(item.backgroundColor)) {
-            try {
-                return Color.parseColor(item.backgroundColor);
-            } catch (IllegalArgumentException e) {
-                return Color.WHITE;
-            }
+        if (mStyleColumns != null) {
+            return mStyleColumns.colorAt(mStyleRow);
         }
-        return Color.WHITE;
+        return getStyleSpec().backgroundColor;
     }
 
     /**
      * 采用protected，可在holder子类中实现属性
-     * 亦可从item获取配置的属性
+     * 亦可从item获取配置的属性，默认取自编译后的样式
      */
     protected @DrawableRes int getBackgroundResource() {
-        return item.backgroundResource;
+        if (mStyleColumns != null) {
+            return mStyleColumns.backgroundResourceAt(mStyleRow);
+        }
+        return getStyleSpec().backgroundResource;
+    }
+
+    /**
+     * item编译后的样式，首次获取时编译并缓存在item上，相同样式的item共享实例
+     */
+    protected StyleSpec getStyleSpec() {
+        return StyleSpec.of(context, item);
     }
 
     public abstract static class Factory<T extends StyleModel<?>, C extends StyleCallback> extends BaseHolder.Factory<T, C> {
         @Override
         public StyleHolder<T, C> createViewHolder(ViewGroup parent, int viewType, C holderCallback) {
-            LayoutInflater layoutInflater = LayoutInflater.from(parent.getContext());
-            return onCreateViewHolder(layoutInflater.inflate(getLayoutId(), parent, false), holderCallback);
+            return resolveViews(onCreateViewHolder(inflateItemView(parent), holderCallback));
         }
 
         @NonNull
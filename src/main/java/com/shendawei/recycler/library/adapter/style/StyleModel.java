@@ -1,5 +1,9 @@
 package com.shendawei.recycler.library.adapter.style;
 
+import androidx.annotation.NonNull;
+
+import com.shendawei.recycler.library.adapter.base.ItemKeyProvider;
+
 /**
  * rv列表holder对应的数据结构
  *
@@ -8,6 +12,16 @@ package com.shendawei.recycler.library.adapter.style;
  * @date 6/8/22 2:52 PM
  */
 public class StyleModel<Model> {
+    /**
+     * 以{@link #key}作为item key，用于adapter.setItemKeyProvider
+     */
+    public static final ItemKeyProvider<StyleModel<?>> KEY_PROVIDER = new ItemKeyProvider<StyleModel<?>>() {
+        @Override
+        public long getItemKey(@NonNull StyleModel<?> item) {
+            return item.key;
+        }
+    };
+
     public enum CornerType {
         topCorner, bottomCorner, allCorner, noneCorner
     }
@@ -44,6 +58,10 @@ public class StyleModel<Model> {
      * 主数据 mainData
      */
     public Model m;
+    /**
+     * 唯一标识，stable id使用，同一列表内不可重复
+     */
+    public long key;
     /**
      * item类型，for holder
      */
@@ -72,4 +90,15 @@ public class StyleModel<Model> {
      * 展示阴影 未来字段
      */
     public boolean hasShadow;
+    /**
+     * 编译后的样式，首次bind时生成，见{@link StyleSpec#of}
+     */
+    StyleSpec spec;
+
+    /**
+     * 修改样式字段（圆角、内边距、背景等）后调用，下次bind时重新编译
+     */
+    public void invalidateStyle() {
+        spec = null;
+    }
 }
@@ -0,0 +1,168 @@
+package com.shendawei.recycler.library.adapter.style;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.text.TextUtils;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+
+import com.shendawei.recycler.library.utils.ScreenUtils;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * StyleModel样式字段的编译结果，不可变
+ * 颜色、圆角px、内边距等均已解析为int，bind时仅读取字段；
+ * 相同样式的model共享同一个StyleSpec实例（弱引用驻留池，无引用后自动回收）
+ *
+ * @author shendawei
+ * @classname StyleSpec
+ * @date 3/16/23 10:48 PM
+ */
+public final class StyleSpec {
+    private static final int DEFAULT_RADIUS_DP = 6;
+    private static final WeakHashMap<StyleSpec, WeakReference<StyleSpec>> sPool = new WeakHashMap<>();
+
+    /**
+     * 圆角类型，null不设置圆角背景
+     */
+    public final StyleModel.CornerType cornerType;
+    /**
+     * 圆角半径 px
+     */
+    public final int cornerRadius;
+    /**
+     * 背景颜色，解析失败时为白色
+     */
+    public final int backgroundColor;
+    /**
+     * 自定义背景res 0 未设置
+     */
+    @DrawableRes
+    public final int backgroundResource;
+    /**
+     * 是否设置内边距，false时以下padding无效
+     */
+    public final boolean hasPadding;
+    public final int paddingLeft;
+    public final int paddingTop;
+    public final int paddingRight;
+    public final int paddingBottom;
+    /**
+     * 背景drawable缓存key，见{@link StyleDrawableCache#keyOf}
+     */
+    public final long backgroundKey;
+
+    private final int mHashCode;
+
+    private StyleSpec(StyleModel.CornerType cornerType, int cornerRadius, int backgroundColor, int backgroundResource,
+                      boolean hasPadding, int paddingLeft, int paddingTop, int paddingRight, int paddingBottom) {
+        this.cornerType = cornerType;
+        this.cornerRadius = cornerRadius;
+        this.backgroundColor = backgroundColor;
+        this.backgroundResource = backgroundResource;
+        this.hasPadding = hasPadding;
+        this.paddingLeft = paddingLeft;
+        this.paddingTop = paddingTop;
+        this.paddingRight = paddingRight;
+        this.paddingBottom = paddingBottom;
+        this.backgroundKey = cornerType == null ? StyleDrawableCache.NO_KEY
+                : StyleDrawableCache.keyOf(cornerType, cornerRadius, backgroundColor);
+        int h = cornerType == null ? 0 : cornerType.ordinal() + 1;
+        h = 31 * h + cornerRadius;
+        h = 31 * h + backgroundColor;
+        h = 31 * h + backgroundResource;
+        h = 31 * h + (hasPadding ? 1 : 0);
+        h = 31 * h + paddingLeft;
+        h = 31 * h + paddingTop;
+        h = 31 * h + paddingRight;
+        h = 31 * h + paddingBottom;
+        mHashCode = h;
+    }
+
+    /**
+     * 获取model的样式，首次调用时编译并缓存在model上
+     * model样式字段修改后须调用{@link StyleModel#invalidateStyle()}
+     */
+    @NonNull
+    public static StyleSpec of(@NonNull Context context, @NonNull StyleModel<?> model) {
+        StyleSpec spec = model.spec;
+        if (spec == null) {
+            spec = compile(context, model);
+            model.spec = spec;
+        }
+        return spec;
+    }
+
+    /**
+     * 编译model的样式字段，返回驻留池中的共享实例
+     */
+    @NonNull
+    public static StyleSpec compile(@NonNull Context context, @NonNull StyleModel<?> model) {
+        int radius = resolveRadius(context, model.radius);
+        int color = resolveColor(model.backgroundColor);
+        StyleModel.Padding padding = model.padding;
+        StyleSpec spec = padding == null
+                ? new StyleSpec(model.cornerType, radius, color, model.backgroundResource, false, 0, 0, 0, 0)
+                : new StyleSpec(model.cornerType, radius, color, model.backgroundResource, true,
+                padding.left, padding.top, padding.right, padding.bottom);
+        return intern(spec);
+    }
+
+    /**
+     * 圆角半径dp转px，未设置时取默认值
+     */
+    static int resolveRadius(@NonNull Context context, float radius) {
+        return ScreenUtils.dip2px(context, radius != 0 ? radius : DEFAULT_RADIUS_DP);
+    }
+
+    /**
+     * 解析背景颜色，未设置或解析失败时为白色
+     */
+    static int resolveColor(String backgroundColor) {
+        if (TextUtils.isEmpty(backgroundColor)) {
+            return Color.WHITE;
+        }
+        try {
+            return Color.parseColor(backgroundColor);
+        } catch (IllegalArgumentException e) {
+            return Color.WHITE;
+        }
+    }
+
+    private static StyleSpec intern(StyleSpec spec) {
+        synchronized (sPool) {
+            WeakReference<StyleSpec> ref = sPool.get(spec);
+            StyleSpec shared = ref != null ? ref.get() : null;
+            if (shared != null) {
+                return shared;
+            }
+            sPool.put(spec, new WeakReference<>(spec));
+            return spec;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StyleSpec)) return false;
+        StyleSpec that = (StyleSpec) o;
+        return mHashCode == that.mHashCode
+                && cornerType == that.cornerType
+                && cornerRadius == that.cornerRadius
+                && backgroundColor == that.backgroundColor
+                && backgroundResource == that.backgroundResource
+                && hasPadding == that.hasPadding
+                && paddingLeft == that.paddingLeft
+                && paddingTop == that.paddingTop
+                && paddingRight == that.paddingRight
+                && paddingBottom == that.paddingBottom;
+    }
+
+    @Override
+    public int hashCode() {
+        return mHashCode;
+    }
+}
@@ -0,0 +1,139 @@
+package com.shendawei.recycler.library.utils;
+
+import java.util.Arrays;
+
+/**
+ * 树状数组（Fenwick tree），维护一组非负int的前缀和
+ * 单点修改、前缀和、按位置查找所在下标均为O(log n)；中间插入／删除元素O(n)重建
+ * 用于分区、组合adapter中 分段大小 <-> 扁平position 的映射
+ *
+ * @author shendawei
+ * @classname FenwickTree
+ * @date 4/2/23 4:20 PM
+ */
+public class FenwickTree {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int mSize;
+    private int[] mValues;
+    /**
+     * 下标从1开始，mTree[i]为(i - lowbit(i), i]区间之和
+     */
+    private int[] mTree;
+
+    public FenwickTree() {
+        mValues = new int[INITIAL_CAPACITY];
+        mTree = new int[INITIAL_CAPACITY + 1];
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return mValues[index];
+    }
+
+    public void set(int index, int value) {
+        add(index, value - get(index));
+    }
+
+    public void add(int index, int delta) {
+        checkIndex(index);
+        if (delta == 0) {
+            return;
+        }
+        mValues[index] += delta;
+        for (int i = index + 1; i <= mSize; i += i & -i) {
+            mTree[i] += delta;
+        }
+    }
+
+    /**
+     * @return 前count个元素之和，即下标为count的元素的起始位置
+     */
+    public int prefixSum(int count) {
+        if (count < 0 || count > mSize) {
+            throw new IndexOutOfBoundsException("count = " + count + ", size = " + mSize);
+        }
+        int sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += mTree[i];
+        }
+        return sum;
+    }
+
+    public int total() {
+        return prefixSum(mSize);
+    }
+
+    /**
+     * 查找position所在的元素下标：prefixSum(index) <= position < prefixSum(index + 1)，大小为0的元素被跳过
+     *
+     * @return position >= total()时返回size()
+     */
+    public int indexOf(int position) {
+        int index = 0;
+        int remaining = position;
+        for (int step = Integer.highestOneBit(Math.max(mSize, 1)); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next <= mSize && mTree[next] <= remaining) {
+                index = next;
+                remaining -= mTree[next];
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 在index处插入元素，之后的元素后移，O(n)
+     */
+    public void insert(int index, int value) {
+        if (index < 0 || index > mSize) {
+            throw new IndexOutOfBoundsException("index = " + index + ", size = " + mSize);
+        }
+        if (mSize == mValues.length) {
+            mValues = Arrays.copyOf(mValues, mValues.length * 2);
+            mTree = new int[mValues.length + 1];
+        }
+        System.arraycopy(mValues, index, mValues, index + 1, mSize - index);
+        mValues[index] = value;
+        mSize++;
+        rebuild();
+    }
+
+    /**
+     * 移除index处的元素，之后的元素前移，O(n)
+     */
+    public void remove(int index) {
+        checkIndex(index);
+        System.arraycopy(mValues, index + 1, mValues, index, mSize - index - 1);
+        mSize--;
+        rebuild();
+    }
+
+    public void clear() {
+        mSize = 0;
+    }
+
+    /**
+     * 线性时间重建
+     */
+    private void rebuild() {
+        Arrays.fill(mTree, 0);
+        for (int i = 1; i <= mSize; i++) {
+            mTree[i] += mValues[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= mSize) {
+                mTree[parent] += mTree[i];
+            }
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("index = " + index + ", size = " + mSize);
+        }
+    }
+}
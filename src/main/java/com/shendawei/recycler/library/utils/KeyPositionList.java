@@ -0,0 +1,281 @@
+package com.shendawei.recycler.library.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * 按位置排列的long key序列，支持按key查找当前位置
+ * 分块存储：key按顺序存放在若干块中，块大小由树状数组维护前缀和，key -> 所在块由哈希表维护
+ * 1. 查找位置：块起始位置O(log 块数) + 块内扫描O(块大小)
+ * 2. 插入／删除／替换只修改所在块，块拆分、合并时O(块数)；任意位置的增删不会使其他key的索引失效
+ * 3. {@link #NO_KEY}表示没有key的位置（如占位行），占位但不可查找；重复的key只保证能找到最后加入的一个
+ * 用于adapter的key -> position索引
+ *
+ * @author shendawei
+ * @classname KeyPositionList
+ * @date 3/30/23 11:05 PM
+ */
+public class KeyPositionList {
+    public static final long NO_KEY = -1;
+    private static final int MAX_BLOCK_SIZE = 128;
+    /**
+     * 拆分后的块半满，为后续插入留出空间
+     */
+    private static final int SPLIT_BLOCK_SIZE = MAX_BLOCK_SIZE / 2;
+    /**
+     * 删除后相邻两块合计不超过此值时合并，避免碎块
+     */
+    private static final int MERGE_BLOCK_SIZE = MAX_BLOCK_SIZE * 3 / 4;
+
+    /**
+     * 按顺序排列的块，下标与mBlockSizes一致
+     */
+    private final ArrayList<Block> mBlocks = new ArrayList<>();
+    private final FenwickTree mBlockSizes = new FenwickTree();
+    /**
+     * key -> 所在块的id
+     */
+    private final LongIntMap mKeyBlocks = new LongIntMap();
+    /**
+     * 块id -> 块，已释放的id为null，供新块复用
+     */
+    private final ArrayList<Block> mBlocksById = new ArrayList<>();
+    private int[] mFreeIds = new int[8];
+    private int mFreeIdCount;
+    private final long[] mSingleKey = new long[1];
+
+    public int size() {
+        return mBlockSizes.total();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return key的当前位置，不存在返回-1
+     */
+    public int positionOf(long key) {
+        if (key == NO_KEY) {
+            return -1;
+        }
+        int id = mKeyBlocks.get(key, -1);
+        if (id == -1) {
+            return -1;
+        }
+        Block block = mBlocksById.get(id);
+        for (int i = 0; i < block.size; i++) {
+            if (block.keys[i] == key) {
+                return mBlockSizes.prefixSum(block.order) + i;
+            }
+        }
+        return -1;
+    }
+
+    public long keyAt(int position) {
+        checkPosition(position);
+        int order = mBlockSizes.indexOf(position);
+        return mBlocks.get(order).keys[position - mBlockSizes.prefixSum(order)];
+    }
+
+    public void add(long key) {
+        insert(size(), key);
+    }
+
+    public void insert(int position, long key) {
+        mSingleKey[0] = key;
+        insert(position, mSingleKey, 1);
+    }
+
+    /**
+     * 在position插入keys的前count个，之后的key整体后移
+     */
+    public void insert(int position, long[] keys, int count) {
+        int size = size();
+        if (position < 0 || position > size) {
+            throw new IndexOutOfBoundsException("position = " + position + ", size = " + size);
+        }
+        if (count <= 0) {
+            return;
+        }
+        if (mBlocks.isEmpty()) {
+            insertBlock(0);
+        }
+        int order = position == size ? mBlocks.size() - 1 : mBlockSizes.indexOf(position);
+        Block block = mBlocks.get(order);
+        int offset = position - mBlockSizes.prefixSum(order);
+        if (block.size + count <= MAX_BLOCK_SIZE) {
+            System.arraycopy(block.keys, offset, block.keys, offset + count, block.size - offset);
+            System.arraycopy(keys, 0, block.keys, offset, count);
+            block.size += count;
+            mBlockSizes.add(order, count);
+            for (int i = 0; i < count; i++) {
+                mapKey(keys[i], block);
+            }
+            return;
+        }
+        // 块放不下：插入的key与offset之后的key按半满分块，依次排在该块之后
+        int tailCount = block.size - offset;
+        long[] pending = new long[count + tailCount];
+        System.arraycopy(keys, 0, pending, 0, count);
+        System.arraycopy(block.keys, offset, pending, count, tailCount);
+        block.size = offset;
+        mBlockSizes.set(order, offset);
+        int nextOrder = order + 1;
+        for (int from = 0; from < pending.length; from += SPLIT_BLOCK_SIZE) {
+            int n = Math.min(SPLIT_BLOCK_SIZE, pending.length - from);
+            Block newBlock = insertBlock(nextOrder++);
+            System.arraycopy(pending, from, newBlock.keys, 0, n);
+            newBlock.size = n;
+            mBlockSizes.set(newBlock.order, n);
+            for (int i = 0; i < n; i++) {
+                mapKey(newBlock.keys[i], newBlock);
+            }
+        }
+        if (block.size == 0) {
+            removeBlock(order);
+        }
+    }
+
+    /**
+     * 替换position处的key
+     */
+    public void set(int position, long key) {
+        checkPosition(position);
+        int order = mBlockSizes.indexOf(position);
+        Block block = mBlocks.get(order);
+        int offset = position - mBlockSizes.prefixSum(order);
+        unmapKey(block.keys[offset], block);
+        block.keys[offset] = key;
+        mapKey(key, block);
+    }
+
+    /**
+     * 移除[position, position + count)，之后的key整体前移
+     */
+    public void remove(int position, int count) {
+        int size = size();
+        if (position < 0 || count < 0 || position + count > size) {
+            throw new IndexOutOfBoundsException("position = " + position + ", count = " + count + ", size = " + size);
+        }
+        while (count > 0) {
+            int order = mBlockSizes.indexOf(position);
+            Block block = mBlocks.get(order);
+            int offset = position - mBlockSizes.prefixSum(order);
+            int n = Math.min(count, block.size - offset);
+            for (int i = offset; i < offset + n; i++) {
+                unmapKey(block.keys[i], block);
+            }
+            System.arraycopy(block.keys, offset + n, block.keys, offset, block.size - offset - n);
+            block.size -= n;
+            mBlockSizes.add(order, -n);
+            if (block.size == 0) {
+                removeBlock(order);
+            }
+            count -= n;
+        }
+        if (position > 0) {
+            mergeWithNext(mBlockSizes.indexOf(position - 1));
+        }
+    }
+
+    /**
+     * 只保留前size个key
+     */
+    public void truncate(int size) {
+        remove(size, size() - size);
+    }
+
+    public void clear() {
+        mBlocks.clear();
+        mBlockSizes.clear();
+        mKeyBlocks.clear();
+        mBlocksById.clear();
+        mFreeIdCount = 0;
+    }
+
+    private void mergeWithNext(int order) {
+        if (order + 1 >= mBlocks.size()) {
+            return;
+        }
+        Block block = mBlocks.get(order);
+        Block next = mBlocks.get(order + 1);
+        if (block.size + next.size > MERGE_BLOCK_SIZE) {
+            return;
+        }
+        System.arraycopy(next.keys, 0, block.keys, block.size, next.size);
+        for (int i = 0; i < next.size; i++) {
+            unmapKey(next.keys[i], next);
+            mapKey(next.keys[i], block);
+        }
+        block.size += next.size;
+        mBlockSizes.add(order, next.size);
+        removeBlock(order + 1);
+    }
+
+    private void mapKey(long key, Block block) {
+        if (key != NO_KEY) {
+            mKeyBlocks.put(key, block.id);
+        }
+    }
+
+    /**
+     * 重复的key可能已指向其他块，只移除指向该块的映射
+     */
+    private void unmapKey(long key, Block block) {
+        if (key != NO_KEY && mKeyBlocks.get(key, -1) == block.id) {
+            mKeyBlocks.remove(key);
+        }
+    }
+
+    private Block insertBlock(int order) {
+        int id;
+        if (mFreeIdCount > 0) {
+            id = mFreeIds[--mFreeIdCount];
+        } else {
+            id = mBlocksById.size();
+            mBlocksById.add(null);
+        }
+        Block block = new Block(id);
+        mBlocksById.set(id, block);
+        mBlocks.add(order, block);
+        mBlockSizes.insert(order, 0);
+        renumber(order);
+        return block;
+    }
+
+    private void removeBlock(int order) {
+        Block block = mBlocks.remove(order);
+        mBlockSizes.remove(order);
+        mBlocksById.set(block.id, null);
+        if (mFreeIdCount == mFreeIds.length) {
+            mFreeIds = Arrays.copyOf(mFreeIds, mFreeIdCount * 2);
+        }
+        mFreeIds[mFreeIdCount++] = block.id;
+        renumber(order);
+    }
+
+    private void renumber(int fromOrder) {
+        for (int i = fromOrder, size = mBlocks.size(); i < size; i++) {
+            mBlocks.get(i).order = i;
+        }
+    }
+
+    private void checkPosition(int position) {
+        int size = size();
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("position = " + position + ", size = " + size);
+        }
+    }
+
+    private static final class Block {
+        final int id;
+        int order;
+        int size;
+        final long[] keys = new long[MAX_BLOCK_SIZE];
+
+        Block(int id) {
+            this.id = id;
+        }
+    }
+}
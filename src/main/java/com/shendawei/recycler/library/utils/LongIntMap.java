@@ -0,0 +1,166 @@
+package com.shendawei.recycler.library.utils;
+
+import java.util.Arrays;
+
+/**
+ * long -> int 哈希表，开放寻址（线性探测），无装箱
+ * 删除时后移回填，不留墓碑
+ *
+ * @author shendawei
+ * @classname LongIntMap
+ * @date 3/8/23 9:40 PM
+ */
+public class LongIntMap {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] mKeys;
+    private int[] mValues;
+    private boolean[] mUsed;
+    private int mSize;
+    private int mMask;
+    private int mResizeThreshold;
+
+    public LongIntMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongIntMap(int initialCapacity) {
+        allocate(tableSizeFor(Math.max(MIN_CAPACITY, initialCapacity * 2)));
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    public int get(long key, int valueIfKeyNotFound) {
+        int index = indexOf(key);
+        return index >= 0 ? mValues[index] : valueIfKeyNotFound;
+    }
+
+    /**
+     * @return 是否为新增key
+     */
+    public boolean put(long key, int value) {
+        int index = slot(key);
+        while (mUsed[index]) {
+            if (mKeys[index] == key) {
+                mValues[index] = value;
+                return false;
+            }
+            index = (index + 1) & mMask;
+        }
+        mUsed[index] = true;
+        mKeys[index] = key;
+        mValues[index] = value;
+        if (++mSize > mResizeThreshold) {
+            rehash(mKeys.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * @return 是否存在并已移除
+     */
+    public boolean remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        mSize--;
+        // 后移回填：将后续同簇元素前移，保证探测链不断开
+        int gap = index;
+        int next = (gap + 1) & mMask;
+        while (mUsed[next]) {
+            int home = slot(mKeys[next]);
+            if (((next - home) & mMask) >= ((next - gap) & mMask)) {
+                mKeys[gap] = mKeys[next];
+                mValues[gap] = mValues[next];
+                gap = next;
+            }
+            next = (next + 1) & mMask;
+        }
+        mUsed[gap] = false;
+        return true;
+    }
+
+    /**
+     * 遍历：for (int slot = map.nextSlot(-1); slot >= 0; slot = map.nextSlot(slot))
+     * 遍历期间不可修改
+     *
+     * @return 下一个有效槽位，没有返回-1
+     */
+    public int nextSlot(int slot) {
+        for (int i = slot + 1; i < mUsed.length; i++) {
+            if (mUsed[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long keyAt(int slot) {
+        return mKeys[slot];
+    }
+
+    public int valueAt(int slot) {
+        return mValues[slot];
+    }
+
+    public void clear() {
+        if (mSize == 0) {
+            return;
+        }
+        Arrays.fill(mUsed, false);
+        mSize = 0;
+    }
+
+    private int indexOf(long key) {
+        int index = slot(key);
+        while (mUsed[index]) {
+            if (mKeys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mMask;
+        }
+        return -1;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mMask;
+    }
+
+    private void rehash(int capacity) {
+        long[] keys = mKeys;
+        int[] values = mValues;
+        boolean[] used = mUsed;
+        allocate(capacity);
+        mSize = 0;
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                put(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+        mValues = new int[capacity];
+        mUsed = new boolean[capacity];
+        mMask = capacity - 1;
+        mResizeThreshold = capacity / 2;
+    }
+
+    private static int tableSizeFor(int n) {
+        int capacity = Integer.highestOneBit(n - 1) << 1;
+        return capacity <= 0 ? MIN_CAPACITY : capacity;
+    }
+}
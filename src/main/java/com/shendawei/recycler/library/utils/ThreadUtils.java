@@ -0,0 +1,72 @@
+package com.shendawei.recycler.library.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 线程工具，提供主线程Handler及后台线程池（diff计算等耗时任务）
+ *
+ * @author shendawei
+ * @classname ThreadUtils
+ * @date 3/6/23 10:12 PM
+ */
+public class ThreadUtils {
+
+    private static final int BACKGROUND_THREAD_COUNT = 2;
+
+    private static volatile Handler sMainHandler;
+    private static volatile ExecutorService sBackgroundExecutor;
+
+    public static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    public static Handler getMainHandler() {
+        if (sMainHandler == null) {
+            synchronized (ThreadUtils.class) {
+                if (sMainHandler == null) {
+                    sMainHandler = new Handler(Looper.getMainLooper());
+                }
+            }
+        }
+        return sMainHandler;
+    }
+
+    /**
+     * 切换至主线程执行，总是post，保证调用方栈帧结束后再执行
+     */
+    public static void postOnMainThread(@NonNull Runnable runnable) {
+        getMainHandler().post(runnable);
+    }
+
+    /**
+     * 共享后台线程池，线程为守护线程
+     */
+    public static Executor getBackgroundExecutor() {
+        if (sBackgroundExecutor == null) {
+            synchronized (ThreadUtils.class) {
+                if (sBackgroundExecutor == null) {
+                    sBackgroundExecutor = Executors.newFixedThreadPool(BACKGROUND_THREAD_COUNT, new ThreadFactory() {
+                        private final AtomicInteger mCount = new AtomicInteger(1);
+
+                        @Override
+                        public Thread newThread(@NonNull Runnable r) {
+                            Thread thread = new Thread(r, "RecyclerLibrary-bg-" + mCount.getAndIncrement());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                }
+            }
+        }
+        return sBackgroundExecutor;
+    }
+}
@@ -0,0 +1,115 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class CompositeAdapterTest {
+
+    @Test
+    public void stableIdsFollowChildren() {
+        CompositeAdapter composite = new CompositeAdapter();
+        composite.addAdapter(stableAdapter("a"));
+        assertTrue(composite.hasStableIds());
+
+        TestAdapter plain = new TestAdapter();
+        composite.addAdapter(plain);
+        assertFalse(composite.hasStableIds());
+        assertEquals(RecyclerView.NO_ID, composite.getItemId(0));
+
+        composite.removeAdapter(plain);
+        assertTrue(composite.hasStableIds());
+    }
+
+    @Test
+    public void duplicateChildIdsAreIsolated() {
+        // 两个子adapter按相同规则分配key，本地id重复
+        TestAdapter first = stableAdapter("a", "b");
+        TestAdapter second = stableAdapter("a", "b");
+        CompositeAdapter composite = new CompositeAdapter(Arrays.asList(first, second));
+
+        long[] ids = new long[composite.getItemCount()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = composite.getItemId(i);
+            assertNotEquals(RecyclerView.NO_ID, ids[i]);
+            for (int j = 0; j < i; j++) {
+                assertNotEquals(ids[j], ids[i]);
+            }
+        }
+
+        // 插入后id跟随item而非position
+        first.addItem(0, "c");
+        assertEquals(ids[0], composite.getItemId(1));
+        assertEquals(ids[2], composite.getItemId(3));
+    }
+
+    @Test
+    public void viewTypesAreUniqueAcrossComposites() {
+        // 两个组合可能共用一个RecycledViewPool
+        CompositeAdapter first = new CompositeAdapter(Arrays.asList(stableAdapter("a"), stableAdapter("b")));
+        CompositeAdapter second = new CompositeAdapter(Arrays.asList(stableAdapter("c")));
+        int firstHeader = first.getItemViewType(0);
+        int firstContent = first.getItemViewType(1);
+        int secondHeader = second.getItemViewType(0);
+        assertNotEquals(firstHeader, firstContent);
+        assertNotEquals(firstHeader, secondHeader);
+        assertNotEquals(firstContent, secondHeader);
+        assertEquals(firstHeader, first.getItemViewType(0));
+    }
+
+    @Test
+    public void stableIdsSurviveChurn() {
+        TestAdapter first = stableAdapter("a", "b");
+        TestAdapter second = stableAdapter("a", "b");
+        CompositeAdapter composite = new CompositeAdapter(Arrays.asList(first, second));
+        long kept = composite.getItemId(0);
+        long other = composite.getItemId(2);
+        // 反复插入删除，映射超过阈值后清理已删除item的id
+        for (int i = 0; i < 200; i++) {
+            first.addItem("tmp" + i);
+            composite.getItemId(2);
+            first.removeItem(2);
+        }
+        assertEquals(kept, composite.getItemId(0));
+        assertEquals(other, composite.getItemId(2));
+        long[] ids = new long[composite.getItemCount()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = composite.getItemId(i);
+            for (int j = 0; j < i; j++) {
+                assertNotEquals(ids[j], ids[i]);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void attachedStableCompositeRejectsChildWithoutStableIds() {
+        CompositeAdapter composite = new CompositeAdapter();
+        composite.addAdapter(stableAdapter("a"));
+        composite.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+        });
+        composite.addAdapter(new TestAdapter());
+    }
+
+    private static TestAdapter stableAdapter(String... items) {
+        TestAdapter adapter = new TestAdapter();
+        adapter.setItemKeyProvider(new ItemKeyProvider<String>() {
+            @Override
+            public long getItemKey(@NonNull String item) {
+                return item.hashCode();
+            }
+        });
+        adapter.setHasStableIds(true);
+        adapter.addItems(Arrays.asList(items));
+        return adapter;
+    }
+}
@@ -0,0 +1,155 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * key索引在增删、替换后的正确性及位移换算
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class KeyIndexTest {
+    private static final int SIZE = 1000;
+
+    private TestAdapter mAdapter;
+    private CountingKeyProvider mKeyProvider;
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestAdapter();
+        mKeyProvider = new CountingKeyProvider();
+        mAdapter.setItemKeyProvider(mKeyProvider);
+        List<String> items = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            items.add("item" + i);
+        }
+        mAdapter.addItems(items);
+    }
+
+    @Test
+    public void headEditsDoNotRescanIndexedTail() {
+        assertEquals(SIZE - 1, positionOf("item" + (SIZE - 1)));
+
+        mAdapter.addItem(0, "head");
+        mAdapter.removeItem(1);
+        mAdapter.addItems(0, Arrays.asList("x", "y"));
+        mKeyProvider.mCalls = 0;
+        assertEquals(SIZE + 1, positionOf("item" + (SIZE - 1)));
+        assertEquals(2, positionOf("head"));
+        assertEquals(4, positionOf("item2"));
+        assertTrue("calls " + mKeyProvider.mCalls, mKeyProvider.mCalls < 10);
+    }
+
+    @Test
+    public void headInsertedItemsAreIndexedOnInsert() {
+        assertEquals(SIZE - 1, positionOf("item" + (SIZE - 1)));
+        mKeyProvider.mCalls = 0;
+        for (int i = 0; i < 100; i++) {
+            String head = "head" + i;
+            mAdapter.addItem(0, head);
+            mAdapter.changeItem(head);
+            mAdapter.changeItem("item" + (SIZE - 1));
+        }
+        // 每轮：插入时计算新item的key，两次changeItem各取一次key、校验一次，不重新扫描已索引区间
+        assertTrue("calls " + mKeyProvider.mCalls, mKeyProvider.mCalls <= 100 * 5);
+        assertEquals(0, positionOf("head99"));
+        assertEquals(SIZE + 99, positionOf("item" + (SIZE - 1)));
+    }
+
+    @Test
+    public void removedKeysAreNotFound() {
+        assertEquals(500, positionOf("item500"));
+        mAdapter.removeItemsRange(400, 599);
+        assertEquals(RecyclerView.NO_POSITION, positionOf("item500"));
+        assertEquals(400, positionOf("item600"));
+        assertEquals(399, positionOf("item399"));
+    }
+
+    @Test
+    public void itemsInsertedIntoIndexedRangeAreFound() {
+        assertEquals(SIZE - 1, positionOf("item" + (SIZE - 1)));
+        mAdapter.addItem(10, "inserted");
+        assertEquals(10, positionOf("inserted"));
+        assertEquals(SIZE, positionOf("item" + (SIZE - 1)));
+    }
+
+    @Test
+    public void replacedItemsAreIndexed() {
+        assertEquals(SIZE - 1, positionOf("item" + (SIZE - 1)));
+        mAdapter.removeItem(0);
+        mAdapter.replaceItem(100, "replaced");
+        mKeyProvider.mCalls = 0;
+        assertEquals(100, positionOf("replaced"));
+        assertEquals(RecyclerView.NO_POSITION, positionOf("item101"));
+        assertTrue("calls " + mKeyProvider.mCalls, mKeyProvider.mCalls < 10);
+    }
+
+    @Test
+    public void randomEditsMatchLinearSearch() {
+        Random random = new Random(42);
+        List<String> items = new ArrayList<>();
+        int next = 0;
+        for (int op = 0; op < 2000; op++) {
+            int size = mAdapter.getItemCount();
+            switch (random.nextInt(6)) {
+                case 0:
+                    mAdapter.addItem(random.nextInt(size), "new" + next++);
+                    break;
+                case 1:
+                    mAdapter.addItems(random.nextInt(size), Arrays.asList("new" + next++, "new" + next++));
+                    break;
+                case 2:
+                    mAdapter.removeItem(random.nextInt(size));
+                    break;
+                case 3:
+                    int start = random.nextInt(size - 5);
+                    mAdapter.removeItemsRange(start, start + random.nextInt(5));
+                    break;
+                case 4:
+                    mAdapter.replaceItem(random.nextInt(size), "new" + next++);
+                    break;
+                default:
+                    mAdapter.addItem("new" + next++);
+                    break;
+            }
+            items.clear();
+            items.addAll(mAdapter.getItems());
+            for (int n = 0; n < 3; n++) {
+                String item = items.get(random.nextInt(items.size()));
+                assertEquals(item, items.indexOf(item), positionOf(item));
+            }
+        }
+        Collections.shuffle(items, random);
+        for (String item : items) {
+            assertEquals(item, mAdapter.getItems().indexOf(item), positionOf(item));
+        }
+    }
+
+    private int positionOf(String item) {
+        return mAdapter.getPositionForKey(item.hashCode());
+    }
+
+    private static class CountingKeyProvider implements ItemKeyProvider<String> {
+        int mCalls;
+
+        @Override
+        public long getItemKey(@NonNull String item) {
+            mCalls++;
+            return item.hashCode();
+        }
+    }
+}
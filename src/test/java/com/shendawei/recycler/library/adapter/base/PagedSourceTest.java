@@ -0,0 +1,206 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class PagedSourceTest {
+    private static final int PAGE_SIZE = 3;
+
+    private TestAdapter mAdapter;
+    private PendingLoader mLoader;
+    private PagedSource<String> mSource;
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestAdapter();
+        mLoader = new PendingLoader();
+        mSource = new PagedSource<>(mLoader, PAGE_SIZE);
+        mSource.setPrefetchDistance(0);
+        mAdapter.setPagedSource(mSource);
+    }
+
+    @Test
+    public void firstPageWithoutPlaceholdersAppends() {
+        mSource.setPlaceholdersEnabled(false);
+        mSource.refresh();
+        assertEquals(0, mAdapter.getItemCount());
+
+        mLoader.complete(0, Arrays.asList("a", "b", "c"), true);
+        assertEquals(Arrays.asList("a", "b", "c"), mAdapter.getItems());
+        assertEquals(1, mSource.getLoadedPageCount());
+    }
+
+    @Test
+    public void nextPageWithoutPlaceholdersAppends() {
+        mSource.setPlaceholdersEnabled(false);
+        mSource.refresh();
+        mLoader.complete(0, Arrays.asList("a", "b", "c"), true);
+
+        mAdapter.bind(2);
+        idle();
+        mLoader.complete(1, Arrays.asList("d", "e"), false);
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), mAdapter.getItems());
+        assertFalse(mSource.hasMore());
+    }
+
+    @Test
+    public void placeholdersAreReplacedInPlace() {
+        mSource.refresh();
+        assertEquals(Arrays.asList(null, null, null), mAdapter.getItems());
+        assertTrue(mAdapter.isPlaceholder(0));
+
+        mLoader.complete(0, Arrays.asList("a", "b", "c"), true);
+        assertEquals(Arrays.asList("a", "b", "c"), mAdapter.getItems());
+        assertFalse(mAdapter.isPlaceholder(0));
+    }
+
+    @Test
+    public void pageLargerThanPlaceholdersAppendsRemainder() {
+        mSource.refresh();
+        mLoader.complete(0, Arrays.asList("a", "b", "c", "d", "e"), true);
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), mAdapter.getItems());
+
+        mAdapter.bind(4);
+        idle();
+        assertEquals(8, mAdapter.getItemCount());
+        mLoader.complete(1, Arrays.asList("f", "g", "h"), false);
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h"), mAdapter.getItems());
+    }
+
+    @Test
+    public void shortLastPageRemovesExtraPlaceholders() {
+        mSource.refresh();
+        mLoader.complete(0, Arrays.asList("a"), false);
+        assertEquals(Arrays.asList("a"), mAdapter.getItems());
+        assertFalse(mSource.hasMore());
+    }
+
+    @Test
+    public void failedAppendRemovesPlaceholdersAndRetries() {
+        mSource.refresh();
+        mLoader.fail(0);
+        assertEquals(0, mAdapter.getItemCount());
+
+        mSource.retry();
+        assertEquals(PAGE_SIZE, mAdapter.getItemCount());
+        mLoader.complete(0, Arrays.asList("a", "b", "c"), false);
+        assertEquals(Arrays.asList("a", "b", "c"), mAdapter.getItems());
+    }
+
+    @Test
+    public void staleResultAfterRefreshIsDropped() {
+        mSource.refresh();
+        PageLoader.Callback<String> stale = mLoader.take(0);
+        mSource.refresh();
+        stale.onPageLoaded(Arrays.asList("x", "y", "z"), true);
+        idle();
+        assertEquals(Arrays.asList(null, null, null), mAdapter.getItems());
+
+        mLoader.complete(0, Arrays.asList("a", "b", "c"), true);
+        assertEquals(Arrays.asList("a", "b", "c"), mAdapter.getItems());
+    }
+
+    @Test
+    public void windowTracksPageStartsAcrossUnevenPages() {
+        mSource.setMaxLoadedPages(3);
+        mSource.refresh();
+        mLoader.complete(0, Arrays.asList("a0", "a1", "a2", "a3", "a4"), true);
+        bindAndIdle(4);
+        mLoader.complete(1, Arrays.asList("b0", "b1"), true);
+        bindAndIdle(6);
+        mLoader.complete(2, Arrays.asList("c0", "c1", "c2"), true);
+        bindAndIdle(9);
+        // 第3页加载完成，淘汰距绑定页最远的第0页
+        mLoader.complete(3, Arrays.asList("d0"), true);
+        assertEquals(Arrays.asList(null, null, null, null, null, "b0", "b1", "c0", "c1", "c2", "d0"),
+                mAdapter.getItems());
+        bindAndIdle(10);
+        mLoader.complete(4, Arrays.asList("e0", "e1", "e2"), false);
+        assertEquals(Arrays.asList(null, null, null, null, null, null, null, "c0", "c1", "c2", "d0", "e0", "e1", "e2"),
+                mAdapter.getItems());
+        assertEquals(3, mSource.getLoadedPageCount());
+
+        // 回到头部：重新加载第0、1页
+        bindAndIdle(0);
+        assertTrue(mLoader.isRequested(0));
+        assertTrue(mLoader.isRequested(1));
+        // 第0页少了一项，其后各页起始位置前移；第4页距离最远被淘汰
+        mLoader.complete(0, Arrays.asList("A0", "A1", "A2", "A3"), false);
+        assertEquals(Arrays.asList("A0", "A1", "A2", "A3", null, null, "c0", "c1", "c2", "d0", null, null, null),
+                mAdapter.getItems());
+        assertEquals(3, mSource.getLoadedPageCount());
+
+        // 位置9按前移后的起始位置落在第3页，重新加载相邻的第4页
+        bindAndIdle(9);
+        assertTrue(mLoader.isRequested(4));
+        mLoader.complete(1, Arrays.asList("b0", "b1"), false);
+        mLoader.complete(4, Arrays.asList("e0", "e1", "e2"), false);
+        assertEquals(Arrays.asList(null, null, null, null, null, null, "c0", "c1", "c2", "d0", "e0", "e1", "e2"),
+                mAdapter.getItems());
+        assertEquals(3, mSource.getLoadedPageCount());
+    }
+
+    private void bindAndIdle(int position) {
+        mAdapter.bind(position);
+        idle();
+    }
+
+    private static void idle() {
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    /**
+     * 请求挂起，由测试按页码完成
+     */
+    static class PendingLoader implements PageLoader<String> {
+        private final List<Integer> mPages = new ArrayList<>();
+        private final List<Callback<String>> mCallbacks = new ArrayList<>();
+
+        @Override
+        public void loadPage(int page, int pageSize, @NonNull Callback<String> callback) {
+            mPages.add(page);
+            mCallbacks.add(callback);
+        }
+
+        Callback<String> take(int page) {
+            int index = mPages.lastIndexOf(page);
+            if (index < 0) {
+                throw new AssertionError("page " + page + " was not requested, requested = " + mPages);
+            }
+            mPages.remove(index);
+            return mCallbacks.remove(index);
+        }
+
+        boolean isRequested(int page) {
+            return mPages.contains(page);
+        }
+
+        void complete(int page, List<String> items, boolean hasMore) {
+            take(page).onPageLoaded(items, hasMore);
+            idle();
+        }
+
+        void fail(int page) {
+            take(page).onPageFailed(new RuntimeException("load failed"));
+            idle();
+        }
+    }
+}
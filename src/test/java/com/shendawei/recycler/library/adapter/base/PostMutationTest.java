@@ -0,0 +1,55 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import android.os.Looper;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class PostMutationTest {
+    private TestAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestAdapter();
+    }
+
+    @Test
+    public void postAddItemsIsAppliedOnNextFrame() {
+        mAdapter.postAddItems(Arrays.asList("a", "b"));
+        mAdapter.postAddItem("c");
+        assertEquals(0, mAdapter.getItemCount());
+
+        runFrame();
+        assertEquals(Arrays.asList("a", "b", "c"), mAdapter.getItems());
+    }
+
+    @Test
+    public void postAddItemsIsNotAffectedByLaterChangesToTheList() {
+        List<String> items = new ArrayList<>(Arrays.asList("a", "b"));
+        mAdapter.postAddItems(items);
+        items.clear();
+        items.add("x");
+
+        runFrame();
+        assertEquals(Arrays.asList("a", "b"), mAdapter.getItems());
+    }
+
+    private static void runFrame() {
+        // 修改在Choreographer帧回调中应用
+        shadowOf(Looper.getMainLooper()).runToEndOfTasks();
+    }
+}
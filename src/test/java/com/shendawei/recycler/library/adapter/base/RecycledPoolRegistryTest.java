@@ -0,0 +1,67 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * 共享pool容量只升不降
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class RecycledPoolRegistryTest {
+
+    @Test
+    public void factoryCapacityIsKept() {
+        RecycledPoolRegistry registry = new RecycledPoolRegistry();
+        int viewType = registry.obtainViewType(new CapacityFactory(12));
+        assertEquals(12, registry.getMaxRecycledViews(viewType));
+
+        registry.ensureMaxRecycledViews(viewType, 3);
+        assertEquals(12, registry.getMaxRecycledViews(viewType));
+
+        registry.ensureMaxRecycledViews(viewType, 20);
+        assertEquals(20, registry.getMaxRecycledViews(viewType));
+
+        registry.ensureMaxRecycledViews(viewType, 8);
+        assertEquals(20, registry.getMaxRecycledViews(viewType));
+    }
+
+    @Test
+    public void unregisteredTypeUsesDefaultCapacity() {
+        RecycledPoolRegistry registry = new RecycledPoolRegistry();
+        assertEquals(RecycledPoolRegistry.DEFAULT_MAX_SCRAP, registry.getMaxRecycledViews(1));
+        registry.ensureMaxRecycledViews(1, 2);
+        assertEquals(RecycledPoolRegistry.DEFAULT_MAX_SCRAP, registry.getMaxRecycledViews(1));
+    }
+
+    private static class CapacityFactory extends BaseHolder.Factory<String, HolderCallback> {
+        private final int mMaxRecycledViews;
+
+        CapacityFactory(int maxRecycledViews) {
+            mMaxRecycledViews = maxRecycledViews;
+        }
+
+        @Override
+        protected int getLayoutId() {
+            return 1;
+        }
+
+        @Override
+        protected int getMaxRecycledViews() {
+            return mMaxRecycledViews;
+        }
+
+        @Override
+        protected BaseHolder<String, HolderCallback> onCreateViewHolder(@NonNull View itemView, HolderCallback holderCallback) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
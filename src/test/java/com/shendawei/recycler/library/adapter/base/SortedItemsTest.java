@@ -0,0 +1,237 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SortedItemsTest {
+    private static final Comparator<String> NATURAL = new Comparator<String>() {
+        @Override
+        public int compare(String o1, String o2) {
+            return o1.compareTo(o2);
+        }
+    };
+    private static final Comparator<String> REVERSED = Collections.reverseOrder(NATURAL);
+
+    private TestAdapter mAdapter;
+    private RecordingObserver mObserver;
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestAdapter();
+        mObserver = new RecordingObserver();
+        mAdapter.registerAdapterDataObserver(mObserver);
+    }
+
+    @Test
+    public void reorderDispatchesMinimalMoves() {
+        mAdapter.addItems(Arrays.asList("e", "a", "b", "c", "d"));
+        mObserver.reset(mAdapter.getItems());
+
+        mAdapter.setSortComparator(NATURAL);
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), mAdapter.getItems());
+        assertEquals(1, mObserver.mMoves);
+        assertEquals(0, mObserver.mStructuralEvents);
+        assertEquals(mAdapter.getItems(), mObserver.mItems);
+    }
+
+    @Test
+    public void reorderMovesReplayToSortedOrder() {
+        List<String> items = Arrays.asList("h", "c", "a", "f", "b", "g", "e", "d", "c");
+        mAdapter.addItems(items);
+        mObserver.reset(mAdapter.getItems());
+
+        mAdapter.setSortComparator(NATURAL);
+        List<String> expected = new ArrayList<>(items);
+        Collections.sort(expected);
+        assertEquals(expected, mAdapter.getItems());
+        assertEquals(expected, mObserver.mItems);
+        assertEquals(0, mObserver.mStructuralEvents);
+    }
+
+    @Test
+    public void reorderIsStableForEqualItems() {
+        String first = new String("b");
+        String second = new String("b");
+        mAdapter.addItems(Arrays.asList("c", first, "a", second));
+        mObserver.reset(mAdapter.getItems());
+
+        mAdapter.setSortComparator(NATURAL);
+        assertSame(first, mAdapter.getItems().get(1));
+        assertSame(second, mAdapter.getItems().get(2));
+    }
+
+    @Test
+    public void largeReorderFallsBackToRangeChange() {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add(String.format("%03d", i));
+        }
+        mAdapter.addItems(items);
+        mObserver.reset(mAdapter.getItems());
+
+        mAdapter.setSortComparator(REVERSED);
+        assertEquals("199", mAdapter.getItems().get(0));
+        assertEquals(0, mObserver.mMoves);
+        assertEquals(0, mObserver.mStructuralEvents);
+        assertEquals(1, mObserver.mChanges);
+    }
+
+    @Test
+    public void reorderIsSynchronousInDiffMode() {
+        mAdapter.setItemDiffCallback(new IdentityCallback());
+        mAdapter.addItems(Arrays.asList("b", "a"));
+        mObserver.reset(mAdapter.getItems());
+
+        mAdapter.setSortComparator(NATURAL);
+        assertEquals(Arrays.asList("a", "b"), mAdapter.getItems());
+        assertEquals(mAdapter.getItems(), mObserver.mItems);
+        assertEquals(0, mObserver.mStructuralEvents);
+    }
+
+    @Test
+    public void addSortedItemsMergesIntoRuns() {
+        mAdapter.setSortComparator(NATURAL);
+        mAdapter.addItems(Arrays.asList("b", "d", "f", "h"));
+        mObserver.reset(mAdapter.getItems());
+
+        mAdapter.addSortedItems(Arrays.asList("g", "c", "e", "i", "j", "e"));
+        List<String> expected = Arrays.asList("b", "c", "d", "e", "e", "f", "g", "h", "i", "j");
+        assertEquals(expected, mAdapter.getItems());
+        // [c] [e e] [g] [i j]
+        assertEquals(4, mObserver.mInserts);
+        assertEquals(expected, mObserver.mItems);
+        // 排序模式不做尾部position刷新
+        assertEquals(0, mObserver.mChanges);
+    }
+
+    @Test
+    public void sortedInsertSkipsTailRefresh() {
+        mAdapter.setSortComparator(NATURAL);
+        mAdapter.addItems(Arrays.asList("b", "d", "f"));
+        mObserver.reset(mAdapter.getItems());
+
+        assertEquals(0, mAdapter.addSortedItem("a"));
+        assertEquals(1, mObserver.mInserts);
+        assertEquals(0, mObserver.mChanges);
+        assertEquals(mAdapter.getItems(), mObserver.mItems);
+
+        // 普通模式下按位置插入仍刷新尾部
+        mAdapter.setSortComparator(null);
+        mAdapter.addItem(0, "0");
+        assertEquals(1, mObserver.mChanges);
+    }
+
+    @Test
+    public void addSortedItemsKeepsEqualItemsAfterExisting() {
+        String existing = new String("b");
+        String added = new String("b");
+        mAdapter.setSortComparator(NATURAL);
+        mAdapter.addItems(Arrays.asList("a", existing, "c"));
+
+        mAdapter.addSortedItems(Collections.singletonList(added));
+        assertSame(existing, mAdapter.getItems().get(1));
+        assertSame(added, mAdapter.getItems().get(2));
+    }
+
+    @Test
+    public void addSortedItemsAfterLastAppends() {
+        mAdapter.setSortComparator(NATURAL);
+        mAdapter.addItems(Arrays.asList("a", "b"));
+        mObserver.reset(mAdapter.getItems());
+
+        mAdapter.addSortedItems(Arrays.asList("d", "c"));
+        assertEquals(Arrays.asList("a", "b", "c", "d"), mAdapter.getItems());
+        assertEquals(1, mObserver.mInserts);
+        assertEquals(mAdapter.getItems(), mObserver.mItems);
+    }
+
+    @Test
+    public void addSortedItemsBeforeFirst() {
+        mAdapter.setSortComparator(NATURAL);
+        mAdapter.addItems(Arrays.asList("x", "y"));
+        mObserver.reset(mAdapter.getItems());
+
+        mAdapter.addSortedItems(Arrays.asList("b", "a"));
+        assertEquals(Arrays.asList("a", "b", "x", "y"), mAdapter.getItems());
+        assertEquals(1, mObserver.mInserts);
+        assertEquals(mAdapter.getItems(), mObserver.mItems);
+    }
+
+    /**
+     * 将通知回放到items，校验通知与数据一致
+     */
+    class RecordingObserver extends RecyclerView.AdapterDataObserver {
+        final List<String> mItems = new ArrayList<>();
+        int mMoves;
+        int mInserts;
+        int mChanges;
+        /**
+         * remove／整体刷新，原位重排不应出现
+         */
+        int mStructuralEvents;
+
+        void reset(List<? extends String> items) {
+            mItems.clear();
+            mItems.addAll(items);
+            mMoves = 0;
+            mInserts = 0;
+            mChanges = 0;
+            mStructuralEvents = 0;
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            mItems.add(toPosition, mItems.remove(fromPosition));
+            mMoves++;
+        }
+
+        @Override
+        public void onChanged() {
+            mStructuralEvents++;
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            mChanges++;
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            // 插入段按最终位置从前往后分发，从adapter当前数据中取插入的item
+            mItems.addAll(positionStart, mAdapter.getItems().subList(positionStart, positionStart + itemCount));
+            mInserts++;
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            mStructuralEvents++;
+        }
+    }
+
+    private static class IdentityCallback extends androidx.recyclerview.widget.DiffUtil.ItemCallback<String> {
+        @Override
+        public boolean areItemsTheSame(String oldItem, String newItem) {
+            return oldItem == newItem;
+        }
+
+        @Override
+        public boolean areContentsTheSame(String oldItem, String newItem) {
+            return oldItem.equals(newItem);
+        }
+    }
+}
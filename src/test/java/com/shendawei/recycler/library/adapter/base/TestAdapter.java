@@ -0,0 +1,37 @@
+package com.shendawei.recycler.library.adapter.base;
+
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 单元测试用adapter，只维护数据，不创建holder
+ */
+class TestAdapter extends BaseRecyclerAdapter<String, BaseHolder<String, HolderCallback>, HolderCallback> {
+
+    TestAdapter() {
+        super(null);
+    }
+
+    @Override
+    protected void generateFactories() {
+    }
+
+    @NonNull
+    @Override
+    public BaseHolder<String, HolderCallback> onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        throw new UnsupportedOperationException("TestAdapter doesn't create holders");
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull BaseHolder<String, HolderCallback> holder, int position) {
+        onBindPosition(position);
+    }
+
+    /**
+     * 模拟RecyclerView绑定position
+     */
+    void bind(int position) {
+        onBindPosition(position);
+    }
+}
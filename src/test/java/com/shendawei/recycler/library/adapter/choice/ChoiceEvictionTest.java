@@ -0,0 +1,201 @@
+package com.shendawei.recycler.library.adapter.choice;
+
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import com.shendawei.recycler.library.adapter.base.PageLoader;
+import com.shendawei.recycler.library.adapter.base.PagedSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 分页窗口淘汰与选中数量
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class ChoiceEvictionTest {
+    private static final int PAGE_SIZE = 3;
+
+    private TestChoiceAdapter mAdapter;
+    private final List<PageLoader.Callback<String>> mCallbacks = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestChoiceAdapter();
+        PagedSource<String> source = new PagedSource<>(new PageLoader<String>() {
+            @Override
+            public void loadPage(int page, int pageSize, @NonNull Callback<String> callback) {
+                while (mCallbacks.size() <= page) {
+                    mCallbacks.add(null);
+                }
+                mCallbacks.set(page, callback);
+            }
+        }, PAGE_SIZE);
+        source.setPrefetchDistance(0);
+        source.setMaxLoadedPages(2);
+        mAdapter.setPagedSource(source);
+        source.refresh();
+    }
+
+    @Test
+    public void evictedSelectionIsExcludedAndRestoredByKey() {
+        mAdapter.useContentKeys();
+        loadThreePages();
+        mAdapter.checkItem(0, true);
+        mAdapter.checkItem(1, true);
+        assertEquals(2, mAdapter.getSelectionCount());
+
+        evictFirstPage();
+        assertEquals(0, mAdapter.getSelectionCount());
+        assertEquals(loadedCount(), mAdapter.getSelectableCount());
+
+        reloadFirstPage(copies("a", "b", "c"));
+        assertEquals(2, mAdapter.getSelectionCount());
+        assertTrue(mAdapter.isChecked("a"));
+        assertTrue(mAdapter.isChecked("b"));
+        assertFalse(mAdapter.isChecked("c"));
+    }
+
+    @Test
+    public void evictedKeyMissingAfterReloadIsDropped() {
+        mAdapter.useContentKeys();
+        loadThreePages();
+        mAdapter.checkItem(0, true);
+
+        evictFirstPage();
+        reloadFirstPage(copies("x", "b", "c"));
+        assertEquals(0, mAdapter.getSelectionCount());
+
+        // 之后再加载到同key的item，不应恢复已丢弃的记录
+        mAdapter.addItem("a");
+        assertEquals(0, mAdapter.getSelectionCount());
+    }
+
+    @Test
+    public void evictedSelectionWithIdentityKeysIsDropped() {
+        loadThreePages();
+        mAdapter.checkItem(0, true);
+        mAdapter.checkItem(3, true);
+
+        evictFirstPage();
+        assertEquals(1, mAdapter.getSelectionCount());
+
+        reloadFirstPage(copies("a", "b", "c"));
+        assertEquals(1, mAdapter.getSelectionCount());
+        assertFalse(mAdapter.isChecked("a"));
+        assertTrue(mAdapter.isChecked("d"));
+    }
+
+    @Test
+    public void invertedSelectionKeepsExclusionAcrossEviction() {
+        mAdapter.useContentKeys();
+        loadThreePages();
+        mAdapter.setAllChecked();
+        mAdapter.checkItem(0, false);
+        assertEquals(mAdapter.getSelectableCount() - 1, mAdapter.getSelectionCount());
+
+        evictFirstPage();
+        assertEquals(loadedCount(), mAdapter.getSelectableCount());
+        assertEquals(mAdapter.getSelectableCount(), mAdapter.getSelectionCount());
+
+        reloadFirstPage(copies("a", "b", "c"));
+        assertEquals(loadedCount(), mAdapter.getSelectableCount());
+        assertEquals(mAdapter.getSelectableCount() - 1, mAdapter.getSelectionCount());
+        assertFalse(mAdapter.isChecked("a"));
+        assertTrue(mAdapter.isChecked("b"));
+    }
+
+    @Test
+    public void selectAllWhileEvictedDiscardsParkedExclusions() {
+        mAdapter.useContentKeys();
+        loadThreePages();
+        mAdapter.checkItem(0, true);
+
+        evictFirstPage();
+        mAdapter.clearAllChecked();
+        reloadFirstPage(copies("a", "b", "c"));
+        assertEquals(0, mAdapter.getSelectionCount());
+    }
+
+    /**
+     * 加载0～2页：a～i
+     */
+    private void loadThreePages() {
+        complete(0, "a", "b", "c");
+        loadPage(1);
+        loadPage(2);
+        assertFalse(mAdapter.isPlaceholder(0));
+    }
+
+    /**
+     * 绑定末尾加载第3页，窗口上限为2页，首页被淘汰为占位行
+     */
+    private void evictFirstPage() {
+        loadPage(3);
+        assertTrue(mAdapter.isPlaceholder(0));
+    }
+
+    private void loadPage(int page) {
+        mAdapter.bind(page * PAGE_SIZE - 1);
+        idle();
+        char first = (char) ('a' + page * PAGE_SIZE);
+        complete(page, String.valueOf(first), String.valueOf((char) (first + 1)), String.valueOf((char) (first + 2)));
+    }
+
+    private int loadedCount() {
+        int count = 0;
+        for (int i = 0; i < mAdapter.getItemCount(); i++) {
+            if (!mAdapter.isPlaceholder(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void reloadFirstPage(List<String> items) {
+        mAdapter.bind(0);
+        idle();
+        complete(0, items);
+    }
+
+    private void complete(int page, String... items) {
+        complete(page, Arrays.asList(items));
+    }
+
+    private void complete(int page, List<String> items) {
+        PageLoader.Callback<String> callback = mCallbacks.set(page, null);
+        assertNotNull("page " + page + " was not requested", callback);
+        callback.onPageLoaded(items, true);
+        idle();
+    }
+
+    /**
+     * 重新加载得到的是新对象
+     */
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    private static List<String> copies(String... items) {
+        List<String> copies = new ArrayList<>(items.length);
+        for (String item : items) {
+            copies.add(new String(item));
+        }
+        return copies;
+    }
+
+    private static void idle() {
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+}
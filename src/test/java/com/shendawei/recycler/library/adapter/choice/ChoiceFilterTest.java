@@ -0,0 +1,161 @@
+package com.shendawei.recycler.library.adapter.choice;
+
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import com.shendawei.recycler.library.adapter.base.ItemFilter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 过滤模式下的选中数量及全选范围
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class ChoiceFilterTest {
+    private static final String A = "a1";
+    private static final String B = "b1";
+    private static final String C = "c2";
+    private static final String D = "d2";
+    private static final String E = "-e2";
+
+    private TestChoiceAdapter mAdapter;
+    private ItemFilter<String> mFilter;
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestChoiceAdapter();
+        mFilter = new ItemFilter<>(mAdapter, new ItemFilter.Matcher<String>() {
+            @Override
+            public boolean matches(@NonNull String item, @NonNull CharSequence query) {
+                return item.contains(query);
+            }
+        });
+        mFilter.setExecutor(new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                command.run();
+            }
+        });
+        mFilter.setSource(Arrays.asList(A, B, C, D, E));
+        idle();
+    }
+
+    @Test
+    public void countsCoverHiddenItems() {
+        assertEquals(4, mAdapter.getSelectableCount());
+        mAdapter.checkItem(0, true);
+        mAdapter.checkItem(1, true);
+        mAdapter.checkItem(2, true);
+
+        filter("2");
+        assertEquals(Arrays.asList(C, D, E), mAdapter.getItems());
+        assertEquals(4, mAdapter.getSelectableCount());
+        assertEquals(3, mAdapter.getSelectionCount());
+        assertEquals(Arrays.asList(A, B, C), mAdapter.getSelectedItems());
+
+        filter(null);
+        assertTrue(mAdapter.isChecked(A));
+        assertTrue(mAdapter.isChecked(C));
+        assertFalse(mAdapter.isChecked(D));
+    }
+
+    @Test
+    public void invertedCountsStayNonNegative() {
+        mAdapter.setAllChecked();
+        mAdapter.checkItem(0, false);
+        mAdapter.checkItem(2, false);
+
+        filter("b");
+        assertEquals(Collections.singletonList(B), mAdapter.getItems());
+        assertEquals(2, mAdapter.getSelectionCount());
+
+        filter(null);
+        assertEquals(2, mAdapter.getSelectionCount());
+        assertFalse(mAdapter.isChecked(A));
+        assertTrue(mAdapter.isChecked(B));
+    }
+
+    @Test
+    public void selectAllWhileFilteredOnlySelectsVisibleItems() {
+        filter("2");
+        mAdapter.setAllChecked();
+        assertEquals(2, mAdapter.getSelectionCount());
+        assertTrue(mAdapter.isChecked(C));
+        assertFalse(mAdapter.isChecked(E));
+
+        filter(null);
+        assertFalse(mAdapter.isChecked(A));
+        assertTrue(mAdapter.isChecked(D));
+    }
+
+    @Test
+    public void clearAllWhileFilteredKeepsHiddenSelection() {
+        mAdapter.setAllChecked();
+        filter("2");
+        mAdapter.clearAllChecked();
+        assertEquals(2, mAdapter.getSelectionCount());
+
+        filter(null);
+        assertTrue(mAdapter.isChecked(A));
+        assertTrue(mAdapter.isChecked(B));
+        assertFalse(mAdapter.isChecked(C));
+    }
+
+    @Test
+    public void rangeOverAllVisibleItemsDoesNotSelectHiddenItems() {
+        filter("1");
+        mAdapter.setRangeChecked(0, mAdapter.getItemCount() - 1, true);
+        assertEquals(2, mAdapter.getSelectionCount());
+
+        filter(null);
+        assertFalse(mAdapter.isChecked(C));
+    }
+
+    @Test
+    public void itemsDroppedFromSourceArePruned() {
+        mAdapter.checkItem(0, true);
+        mAdapter.checkItem(1, true);
+        filter("b");
+
+        mFilter.setSource(Arrays.asList(B, C, D));
+        idle();
+        assertEquals(3, mAdapter.getSelectableCount());
+        assertEquals(1, mAdapter.getSelectionCount());
+        assertEquals(Collections.singletonList(B), mAdapter.getSelectedItems());
+    }
+
+    @Test
+    public void droppedItemsDoNotCountInSelectAllMode() {
+        mAdapter.setAllChecked();
+        mAdapter.checkItem(0, false);
+
+        mFilter.setSource(Arrays.asList(B, C));
+        idle();
+        assertEquals(2, mAdapter.getSelectableCount());
+        assertEquals(2, mAdapter.getSelectionCount());
+    }
+
+    private void filter(String query) {
+        mFilter.filter(query);
+        idle();
+    }
+
+    private static void idle() {
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+}
@@ -0,0 +1,127 @@
+package com.shendawei.recycler.library.adapter.choice;
+
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import com.shendawei.recycler.library.adapter.base.PageLoader;
+import com.shendawei.recycler.library.adapter.base.PagedSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 全选后新加入的item：分页加载自动选中，业务插入默认不选中
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class ChoiceSelectAllTest {
+    private TestChoiceAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestChoiceAdapter();
+    }
+
+    @Test
+    public void insertAfterSelectAllIsUnchecked() {
+        mAdapter.addItems(Arrays.asList("a", "b"));
+        mAdapter.setAllChecked();
+
+        mAdapter.addItem("c");
+        mAdapter.addItems(0, Arrays.asList("x", "y"));
+        assertFalse(mAdapter.isChecked("c"));
+        assertFalse(mAdapter.isChecked("x"));
+        assertTrue(mAdapter.isChecked("a"));
+        assertEquals(2, mAdapter.getSelectionCount());
+        assertEquals(5, mAdapter.getSelectableCount());
+    }
+
+    @Test
+    public void insertAfterCheckingEveryItemIsUnchecked() {
+        mAdapter.addItems(Arrays.asList("a", "b"));
+        mAdapter.checkItem(0, true);
+        mAdapter.checkItem(1, true);
+
+        mAdapter.addItem("c");
+        assertFalse(mAdapter.isChecked("c"));
+        assertEquals(2, mAdapter.getSelectionCount());
+    }
+
+    @Test
+    public void sortedInsertAfterSelectAllIsUnchecked() {
+        mAdapter.setSortComparator(new Comparator<String>() {
+            @Override
+            public int compare(String o1, String o2) {
+                return o1.compareTo(o2);
+            }
+        });
+        mAdapter.addItems(Arrays.asList("a", "c"));
+        mAdapter.setAllChecked();
+
+        mAdapter.addSortedItem("b");
+        assertFalse(mAdapter.isChecked("b"));
+        assertEquals(2, mAdapter.getSelectionCount());
+    }
+
+    @Test
+    public void replacementAfterSelectAllIsUnchecked() {
+        mAdapter.addItems(Arrays.asList("a", "b"));
+        mAdapter.setAllChecked();
+
+        mAdapter.replaceItem(0, "z");
+        assertFalse(mAdapter.isChecked("z"));
+        assertTrue(mAdapter.isChecked("b"));
+        assertEquals(1, mAdapter.getSelectionCount());
+    }
+
+    @Test
+    public void pageLoadAfterSelectAllIsChecked() {
+        final List<PageLoader.Callback<String>> callbacks = new ArrayList<>();
+        PagedSource<String> source = new PagedSource<>(new PageLoader<String>() {
+            @Override
+            public void loadPage(int page, int pageSize, @NonNull Callback<String> callback) {
+                callbacks.add(callback);
+            }
+        }, 2);
+        source.setPrefetchDistance(0);
+        mAdapter.setPagedSource(source);
+        source.refresh();
+        callbacks.remove(0).onPageLoaded(Arrays.asList("a", "b"), true);
+        idle();
+        mAdapter.checkItem(0, true);
+        mAdapter.checkItem(1, true);
+
+        mAdapter.bind(1);
+        idle();
+        callbacks.remove(0).onPageLoaded(Arrays.asList("c", "d", "e"), false);
+        idle();
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), mAdapter.getItems());
+        assertTrue(mAdapter.isChecked("c"));
+        assertTrue(mAdapter.isChecked("e"));
+        assertEquals(5, mAdapter.getSelectionCount());
+
+        // 分页加载之外的插入仍不选中
+        mAdapter.addItem(0, "x");
+        assertFalse(mAdapter.isChecked("x"));
+        assertEquals(5, mAdapter.getSelectionCount());
+        assertFalse(mAdapter.getSelectedItems().contains("x"));
+    }
+
+    private static void idle() {
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+}
@@ -0,0 +1,58 @@
+package com.shendawei.recycler.library.adapter.choice;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static org.junit.Assert.*;
+
+/**
+ * 切换排序规则后选中态保留
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ChoiceSortTest {
+    private static final Comparator<String> NATURAL = new Comparator<String>() {
+        @Override
+        public int compare(String o1, String o2) {
+            return o1.compareTo(o2);
+        }
+    };
+
+    private TestChoiceAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestChoiceAdapter();
+        mAdapter.addItems(Arrays.asList("d", "-c", "a", "b"));
+    }
+
+    @Test
+    public void selectionSurvivesReorder() {
+        mAdapter.checkItem(0, true);
+        mAdapter.checkItem(3, true);
+
+        mAdapter.setSortComparator(NATURAL);
+        assertEquals(Arrays.asList("-c", "a", "b", "d"), mAdapter.getItems());
+        assertTrue(mAdapter.isChecked("d"));
+        assertTrue(mAdapter.isChecked("b"));
+        assertFalse(mAdapter.isChecked("a"));
+        assertEquals(2, mAdapter.getSelectionCount());
+        assertEquals(3, mAdapter.getSelectableCount());
+    }
+
+    @Test
+    public void selectAllSurvivesReorder() {
+        mAdapter.setAllChecked();
+
+        mAdapter.setSortComparator(NATURAL);
+        assertEquals(mAdapter.getSelectableCount(), mAdapter.getSelectionCount());
+        assertEquals(3, mAdapter.getSelectionCount());
+        assertFalse(mAdapter.isChecked("-c"));
+    }
+}
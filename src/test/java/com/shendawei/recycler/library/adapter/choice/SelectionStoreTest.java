@@ -0,0 +1,69 @@
+package com.shendawei.recycler.library.adapter.choice;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SelectionStoreTest {
+
+    @Test
+    public void regularSelection() {
+        SelectionStore store = new SelectionStore();
+        assertTrue(store.select(1));
+        assertFalse(store.select(1));
+        assertTrue(store.isSelected(1));
+        assertFalse(store.isSelected(2));
+        assertEquals(1, store.size(10));
+        assertTrue(store.deselect(1));
+        assertFalse(store.deselect(1));
+        assertEquals(0, store.size(10));
+    }
+
+    @Test
+    public void selectAllRecordsExclusions() {
+        SelectionStore store = new SelectionStore();
+        store.select(1);
+        store.selectAll();
+        assertTrue(store.isInverted());
+        assertEquals(0, store.keyCount());
+        assertTrue(store.isSelected(1));
+        assertTrue(store.isSelected(42));
+        assertEquals(10, store.size(10));
+
+        assertTrue(store.deselect(2));
+        assertFalse(store.deselect(2));
+        assertFalse(store.isSelected(2));
+        assertTrue(store.isRecorded(2));
+        assertEquals(9, store.size(10));
+
+        assertTrue(store.select(2));
+        assertFalse(store.select(2));
+        assertEquals(10, store.size(10));
+    }
+
+    @Test
+    public void forgetDropsExclusion() {
+        SelectionStore store = new SelectionStore();
+        store.selectAll();
+        store.deselect(5);
+        store.forget(5);
+        assertTrue(store.isSelected(5));
+        assertFalse(store.isRecorded(5));
+
+        store.record(5);
+        assertFalse(store.isSelected(5));
+        assertArrayEquals(new long[]{5}, store.toKeyArray());
+    }
+
+    @Test
+    public void clearLeavesInversion() {
+        SelectionStore store = new SelectionStore();
+        store.selectAll();
+        store.deselect(3);
+        store.clear();
+        assertFalse(store.isInverted());
+        assertFalse(store.isSelected(3));
+        assertFalse(store.isSelected(4));
+        assertEquals(0, store.size(10));
+    }
+}
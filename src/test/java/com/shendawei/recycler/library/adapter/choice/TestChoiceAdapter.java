@@ -0,0 +1,59 @@
+package com.shendawei.recycler.library.adapter.choice;
+
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+
+import com.shendawei.recycler.library.adapter.base.ItemKeyProvider;
+
+/**
+ * 单元测试用多选adapter，只维护数据及选中态，不创建holder
+ * 以"-"开头的item不可选
+ */
+class TestChoiceAdapter extends AbsChoiceAdapter<String> {
+    TestChoiceAdapter() {
+        super(new ChoiceCallback() {
+            @Override
+            public void onChoiceChanged(boolean isAllChecked) {
+            }
+        });
+    }
+
+    @Override
+    protected void generateFactories() {
+    }
+
+    @Override
+    protected ChoiceBaseHolder<String> onCreateChoiceHolder(ViewGroup parent, int viewType) {
+        throw new UnsupportedOperationException("TestChoiceAdapter doesn't create holders");
+    }
+
+    @Override
+    public boolean isItemCheckable(String item) {
+        return !item.startsWith("-");
+    }
+
+    /**
+     * 模拟RecyclerView绑定position
+     */
+    void bind(int position) {
+        onBindPosition(position);
+    }
+
+    /**
+     * 按字符串内容分配业务key，重新加载得到的新对象与原对象key相同
+     */
+    void useContentKeys() {
+        setItemKeyProvider(new ItemKeyProvider<String>() {
+            @Override
+            public long getItemKey(@NonNull String item) {
+                return item.hashCode();
+            }
+        });
+    }
+
+    boolean isChecked(String item) {
+        int position = getItems().indexOf(item);
+        return position >= 0 && isCheckedAt(position);
+    }
+}
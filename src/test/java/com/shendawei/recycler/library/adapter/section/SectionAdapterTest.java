@@ -0,0 +1,163 @@
+package com.shendawei.recycler.library.adapter.section;
+
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.shendawei.recycler.library.adapter.base.BaseHolder;
+import com.shendawei.recycler.library.adapter.base.HolderCallback;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * 分区结构：position映射、header删除及在分区边界插入
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SectionAdapterTest {
+    private TestSectionAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestSectionAdapter();
+        // [H0 a b] [c] [H2 d e]
+        mAdapter.addSection("H0", Arrays.asList("a", "b"));
+        mAdapter.addSection(null, Collections.singletonList("c"));
+        mAdapter.addSection("H2", Arrays.asList("d", "e"));
+    }
+
+    @Test
+    public void positionMapping() {
+        assertEquals(Arrays.asList("H0", "a", "b", "c", "H2", "d", "e"), mAdapter.getItems());
+        assertEquals(3, mAdapter.getSectionCount());
+        assertSections(2, 1, 2);
+        assertTrue(mAdapter.isSectionHeader(0));
+        assertFalse(mAdapter.isSectionHeader(3));
+        assertTrue(mAdapter.isSectionHeader(4));
+        assertEquals(1, mAdapter.getSectionForPosition(3));
+        assertEquals(0, mAdapter.getIndexInSection(3));
+        assertEquals(2, mAdapter.getSectionForPosition(6));
+        assertEquals(1, mAdapter.getIndexInSection(6));
+        assertEquals(RecyclerView.NO_POSITION, mAdapter.getSectionForPosition(7));
+        assertEquals(5, mAdapter.getPosition(2, 0));
+        assertEquals(4, mAdapter.getPosition(2, AbsSectionAdapter.HEADER_INDEX));
+    }
+
+    @Test
+    public void removingHeaderKeepsSectionItems() {
+        mAdapter.removeItem(4);
+        assertEquals(3, mAdapter.getSectionCount());
+        assertFalse(mAdapter.hasSectionHeader(2));
+        assertSections(2, 1, 2);
+        assertEquals("d", mAdapter.getSectionItem(2, 0));
+        assertFalse(mAdapter.isSectionHeader(4));
+    }
+
+    @Test
+    public void removingRangeAcrossHeaderBoundary() {
+        // 移除c及H2：分区1整体移除，分区2失去header
+        mAdapter.removeItemsRange(3, 4);
+        assertEquals(2, mAdapter.getSectionCount());
+        assertTrue(mAdapter.hasSectionHeader(0));
+        assertFalse(mAdapter.hasSectionHeader(1));
+        assertSections(2, 2);
+        assertEquals(Arrays.asList("H0", "a", "b", "d", "e"), mAdapter.getItems());
+    }
+
+    @Test
+    public void removingSectionItemsKeepsHeader() {
+        mAdapter.removeItemsRange(1, 3);
+        assertEquals(2, mAdapter.getSectionCount());
+        assertTrue(mAdapter.hasSectionHeader(0));
+        assertSections(0, 2);
+        assertEquals(2, mAdapter.getPosition(1, 0));
+    }
+
+    @Test
+    public void insertAtHeaderJoinsPreviousSection() {
+        mAdapter.addItem(4, "x");
+        assertEquals(3, mAdapter.getSectionCount());
+        assertSections(2, 2, 2);
+        assertEquals("x", mAdapter.getSectionItem(1, 1));
+        assertTrue(mAdapter.isSectionHeader(5));
+    }
+
+    @Test
+    public void insertAtFirstHeaderCreatesSection() {
+        mAdapter.addItems(0, Arrays.asList("x", "y"));
+        assertEquals(4, mAdapter.getSectionCount());
+        assertFalse(mAdapter.hasSectionHeader(0));
+        assertSections(2, 2, 1, 2);
+        assertTrue(mAdapter.isSectionHeader(2));
+    }
+
+    @Test
+    public void insertAtHeaderlessSectionStartJoinsThatSection() {
+        mAdapter.addItem(3, "x");
+        assertSections(2, 2, 2);
+        assertEquals("x", mAdapter.getSectionItem(1, 0));
+        assertEquals("c", mAdapter.getSectionItem(1, 1));
+    }
+
+    @Test
+    public void addSectionItemsInsertsAfterHeader() {
+        mAdapter.addSectionItems(2, 0, Collections.singletonList("x"));
+        assertEquals(Arrays.asList("H0", "a", "b", "c", "H2", "x", "d", "e"), mAdapter.getItems());
+        assertSections(2, 1, 3);
+        assertTrue(mAdapter.isSectionHeader(4));
+    }
+
+    @Test
+    public void appendJoinsLastSection() {
+        mAdapter.addItem("x");
+        assertSections(2, 1, 3);
+        assertEquals("x", mAdapter.getSectionItem(2, 2));
+    }
+
+    @Test
+    public void removeSectionShiftsFollowingSections() {
+        mAdapter.removeSection(0);
+        assertEquals(2, mAdapter.getSectionCount());
+        assertSections(1, 2);
+        assertTrue(mAdapter.hasSectionHeader(1));
+        assertEquals(2, mAdapter.getPosition(1, 0));
+    }
+
+    private void assertSections(int... itemCounts) {
+        assertEquals(itemCounts.length, mAdapter.getSectionCount());
+        for (int i = 0; i < itemCounts.length; i++) {
+            assertEquals("section " + i, itemCounts[i], mAdapter.getSectionItemCount(i));
+        }
+    }
+
+    private static class TestSectionAdapter extends AbsSectionAdapter<String, BaseHolder<String, HolderCallback>, HolderCallback> {
+
+        TestSectionAdapter() {
+            super(null);
+        }
+
+        @Override
+        protected void generateFactories() {
+        }
+
+        @NonNull
+        @Override
+        public BaseHolder<String, HolderCallback> onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException("TestSectionAdapter doesn't create holders");
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull BaseHolder<String, HolderCallback> holder, int position) {
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.shendawei.recycler.library.adapter.style;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 列式样式存储与对象存储行为一致，adapter开启后按列读取viewType与样式
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class StyleColumnsTest {
+
+    @Test
+    public void randomEditsMatchArrayList() {
+        Random random = new Random(18);
+        List<StyleModel<?>> expected = new ArrayList<>();
+        StyleColumns columns = new StyleColumns(expected);
+        int nextKey = 0;
+        for (int step = 0; step < 2000; step++) {
+            int size = expected.size();
+            int op = random.nextInt(6);
+            if (op == 0 || size == 0) {
+                int index = random.nextInt(size + 1);
+                StyleModel<?> model = random.nextInt(10) == 0 ? null : model(nextKey++, random);
+                expected.add(index, model);
+                columns.add(index, model);
+            } else if (op == 1) {
+                int index = random.nextInt(size + 1);
+                List<StyleModel<?>> models = Arrays.<StyleModel<?>>asList(model(nextKey++, random), model(nextKey++, random));
+                expected.addAll(index, models);
+                columns.addAll(index, models);
+            } else if (op == 2) {
+                int index = random.nextInt(size);
+                assertSameRow(expected.remove(index), columns.remove(index));
+            } else if (op == 3) {
+                int from = random.nextInt(size);
+                int to = from + random.nextInt(size - from) + 1;
+                expected.subList(from, to).clear();
+                columns.subList(from, to).clear();
+            } else if (op == 4) {
+                int index = random.nextInt(size);
+                StyleModel<?> model = model(nextKey++, random);
+                assertSameRow(expected.set(index, model), columns.set(index, model));
+            } else {
+                int index = random.nextInt(size);
+                StyleModel<?> model = expected.get(index);
+                assertEquals(expected.indexOf(model), columns.indexOf(model));
+            }
+            assertEquals(expected.size(), columns.size());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameRow(expected.get(i), columns.get(i));
+        }
+    }
+
+    @Test
+    public void adapterReadsViewTypeAndStyleFromColumns() {
+        TestStyleAdapter adapter = new TestStyleAdapter();
+        adapter.setItemKeyProvider(StyleModel.KEY_PROVIDER);
+        List<StyleModel<?>> models = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            StyleModel<String> model = new StyleModel<>();
+            model.m = "item" + i;
+            model.key = i;
+            model.itemType = i % 3;
+            models.add(model);
+        }
+        adapter.addItems(models);
+        adapter.setColumnarStyleEnabled(true);
+        assertTrue(adapter.getItems() instanceof StyleColumns);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i % 3, adapter.getItemViewType(i));
+        }
+
+        adapter.removeItemsRange(2, 4);
+        assertEquals(7, adapter.getItemCount());
+        assertEquals(5, adapter.getItemKey(2));
+        assertEquals(5 % 3, adapter.getItemViewType(2));
+
+        // 副本按key定位
+        StyleModel<?> copy = adapter.getItemForKey(7);
+        assertNotNull(copy);
+        assertEquals("item7", copy.m);
+        adapter.removeItem(copy);
+        assertEquals(6, adapter.getItemCount());
+
+        StyleModel<?> row = adapter.getItems().get(0);
+        row.cornerType = StyleModel.CornerType.allCorner;
+        row.backgroundColor = "#FF0000";
+        row.padding = new StyleModel.Padding().ofTop(4);
+        adapter.notifyStyleChanged(0, row, StyleChange.ALL);
+        StyleColumns columns = (StyleColumns) adapter.getItems();
+        assertEquals(StyleModel.CornerType.allCorner, columns.cornerTypeAt(0));
+        assertEquals(0xFFFF0000, columns.colorAt(0));
+        assertTrue(columns.hasPaddingAt(0));
+        assertEquals(4, columns.paddingTopAt(0));
+        assertEquals("item0", adapter.getItems().get(0).m);
+
+        adapter.setColumnarStyleEnabled(false);
+        assertFalse(adapter.getItems() instanceof StyleColumns);
+        assertEquals(StyleModel.CornerType.allCorner, adapter.getItems().get(0).cornerType);
+        assertEquals(6, adapter.getItemCount());
+    }
+
+    private static StyleModel<?> model(int key, Random random) {
+        StyleModel<Integer> model = new StyleModel<>();
+        model.m = key;
+        model.key = key;
+        model.itemType = random.nextInt(4);
+        model.cornerType = random.nextBoolean() ? null : StyleModel.CornerType.values()[random.nextInt(4)];
+        model.radius = random.nextInt(3) * 4;
+        model.backgroundColor = random.nextBoolean() ? null : String.format("#%06X", random.nextInt(0x1000000));
+        model.backgroundResource = random.nextInt(3);
+        model.hasShadow = random.nextBoolean();
+        if (random.nextBoolean()) {
+            model.padding = new StyleModel.Padding().ofLeft(random.nextInt(8)).ofTop(random.nextInt(8))
+                    .ofRight(random.nextInt(8)).ofBottom(random.nextInt(8));
+        }
+        return model;
+    }
+
+    private static void assertSameRow(StyleModel<?> expected, StyleModel<?> actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertNotNull(actual);
+        assertEquals(expected.m, actual.m);
+        assertEquals(expected.key, actual.key);
+        assertEquals(expected.itemType, actual.itemType);
+        assertEquals(expected.cornerType, actual.cornerType);
+        assertEquals(expected.radius, actual.radius, 0f);
+        assertEquals(StyleSpec.resolveColor(expected.backgroundColor), StyleSpec.resolveColor(actual.backgroundColor));
+        assertEquals(expected.backgroundResource, actual.backgroundResource);
+        assertEquals(expected.hasShadow, actual.hasShadow);
+        if (expected.padding == null) {
+            assertNull(actual.padding);
+        } else {
+            assertNotNull(actual.padding);
+            assertEquals(expected.padding.left, actual.padding.left);
+            assertEquals(expected.padding.top, actual.padding.top);
+            assertEquals(expected.padding.right, actual.padding.right);
+            assertEquals(expected.padding.bottom, actual.padding.bottom);
+        }
+    }
+
+    private static class TestStyleAdapter extends AbsStyleAdapter<StyleCallback> {
+        TestStyleAdapter() {
+            super(null);
+        }
+
+        @Override
+        protected void generateFactories() {
+        }
+    }
+}
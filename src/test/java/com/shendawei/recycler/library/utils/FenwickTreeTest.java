@@ -0,0 +1,108 @@
+package com.shendawei.recycler.library.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FenwickTreeTest {
+
+    @Test
+    public void indexOfSkipsEmptyElements() {
+        FenwickTree tree = build(3, 0, 2, 0, 0, 1);
+        assertEquals(6, tree.total());
+        assertEquals(0, tree.indexOf(0));
+        assertEquals(0, tree.indexOf(2));
+        assertEquals(2, tree.indexOf(3));
+        assertEquals(2, tree.indexOf(4));
+        assertEquals(5, tree.indexOf(5));
+        assertEquals(tree.size(), tree.indexOf(6));
+    }
+
+    @Test
+    public void insertAndRemoveShiftFollowingElements() {
+        FenwickTree tree = build(1, 2, 3);
+        tree.insert(0, 4);
+        tree.insert(2, 5);
+        tree.insert(tree.size(), 6);
+        assertValues(tree, 4, 1, 5, 2, 3, 6);
+        assertEquals(4 + 1 + 5, tree.prefixSum(3));
+
+        tree.remove(0);
+        tree.remove(tree.size() - 1);
+        assertValues(tree, 1, 5, 2, 3);
+        assertEquals(1, tree.indexOf(1));
+        assertEquals(2, tree.indexOf(6));
+    }
+
+    @Test
+    public void insertGrowsCapacity() {
+        FenwickTree tree = new FenwickTree();
+        for (int i = 0; i < 100; i++) {
+            tree.insert(0, 1);
+        }
+        assertEquals(100, tree.total());
+        assertEquals(99, tree.indexOf(99));
+    }
+
+    @Test
+    public void randomOperationsMatchPrefixSums() {
+        Random random = new Random(7);
+        FenwickTree tree = new FenwickTree();
+        List<Integer> values = new ArrayList<>();
+        for (int op = 0; op < 2000; op++) {
+            int choice = values.isEmpty() ? 0 : random.nextInt(3);
+            if (choice == 0) {
+                int index = random.nextInt(values.size() + 1);
+                int value = random.nextInt(4);
+                tree.insert(index, value);
+                values.add(index, value);
+            } else if (choice == 1) {
+                int index = random.nextInt(values.size());
+                tree.remove(index);
+                values.remove(index);
+            } else {
+                int index = random.nextInt(values.size());
+                int value = random.nextInt(4);
+                tree.set(index, value);
+                values.set(index, value);
+            }
+            int total = 0;
+            for (int value : values) {
+                total += value;
+            }
+            assertEquals(total, tree.total());
+            if (total > 0) {
+                int position = random.nextInt(total);
+                int index = tree.indexOf(position);
+                assertTrue(tree.prefixSum(index) <= position && position < tree.prefixSum(index + 1));
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void removeOutOfRangeThrows() {
+        build(1, 2).remove(2);
+    }
+
+    private static FenwickTree build(int... values) {
+        FenwickTree tree = new FenwickTree();
+        for (int value : values) {
+            tree.insert(tree.size(), value);
+        }
+        return tree;
+    }
+
+    private static void assertValues(FenwickTree tree, int... values) {
+        assertEquals(values.length, tree.size());
+        int sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], tree.get(i));
+            assertEquals(sum, tree.prefixSum(i));
+            sum += values[i];
+        }
+    }
+}
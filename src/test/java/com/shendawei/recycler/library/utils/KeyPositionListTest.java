@@ -0,0 +1,99 @@
+package com.shendawei.recycler.library.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class KeyPositionListTest {
+
+    @Test
+    public void insertSplitsFullBlocks() {
+        KeyPositionList list = new KeyPositionList();
+        for (long key = 0; key < 1000; key++) {
+            list.add(key);
+        }
+        // 插入到已满的块中间
+        long[] keys = new long[300];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 10000 + i;
+        }
+        list.insert(500, keys, keys.length);
+        assertEquals(1300, list.size());
+        assertEquals(499, list.positionOf(499));
+        assertEquals(500, list.positionOf(10000));
+        assertEquals(799, list.positionOf(10299));
+        assertEquals(800, list.positionOf(500));
+        assertEquals(1299, list.positionOf(999));
+    }
+
+    @Test
+    public void noKeyTakesPositionButIsNotFound() {
+        KeyPositionList list = new KeyPositionList();
+        list.add(KeyPositionList.NO_KEY);
+        list.add(7);
+        assertEquals(-1, list.positionOf(KeyPositionList.NO_KEY));
+        assertEquals(1, list.positionOf(7));
+        list.set(0, 3);
+        assertEquals(0, list.positionOf(3));
+        list.remove(0, 1);
+        assertEquals(-1, list.positionOf(3));
+        assertEquals(0, list.positionOf(7));
+    }
+
+    @Test
+    public void randomEditsMatchArrayList() {
+        Random random = new Random(25);
+        KeyPositionList list = new KeyPositionList();
+        List<Long> expected = new ArrayList<>();
+        long next = 0;
+        for (int step = 0; step < 5000; step++) {
+            int size = expected.size();
+            int op = random.nextInt(5);
+            if (op == 0 || size == 0) {
+                int position = random.nextInt(size + 1);
+                int count = random.nextInt(200) + 1;
+                long[] keys = new long[count];
+                for (int i = 0; i < count; i++) {
+                    keys[i] = next++;
+                    expected.add(position + i, keys[i]);
+                }
+                list.insert(position, keys, count);
+            } else if (op == 1) {
+                int position = random.nextInt(size);
+                int count = random.nextInt(Math.min(size - position, 150)) + 1;
+                expected.subList(position, position + count).clear();
+                list.remove(position, count);
+            } else if (op == 2) {
+                int position = random.nextInt(size);
+                expected.set(position, next);
+                list.set(position, next++);
+            } else if (op == 3) {
+                int position = random.nextInt(size + 1);
+                expected.add(position, next);
+                list.insert(position, next++);
+            } else {
+                int size2 = random.nextInt(size + 1);
+                expected.subList(size2, size).clear();
+                list.truncate(size2);
+            }
+            assertEquals(expected.size(), list.size());
+            if (!expected.isEmpty()) {
+                for (int n = 0; n < 5; n++) {
+                    int position = random.nextInt(expected.size());
+                    assertEquals(position, list.positionOf(expected.get(position)));
+                    assertEquals((long) expected.get(position), list.keyAt(position));
+                }
+            }
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i, list.positionOf(expected.get(i)));
+        }
+        list.clear();
+        assertEquals(0, list.size());
+        assertEquals(-1, list.positionOf(0));
+    }
+}
@@ -0,0 +1,84 @@
+package com.shendawei.recycler.library.utils;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongIntMapTest {
+
+    @Test
+    public void putGetAndOverwrite() {
+        LongIntMap map = new LongIntMap();
+        assertTrue(map.put(1L, 10));
+        assertTrue(map.put(-1L, 20));
+        assertFalse(map.put(1L, 11));
+        assertEquals(2, map.size());
+        assertEquals(11, map.get(1L, -1));
+        assertEquals(20, map.get(-1L, -1));
+        assertEquals(-1, map.get(2L, -1));
+    }
+
+    @Test
+    public void removeKeepsCollidingKeysReachable() {
+        LongIntMap map = new LongIntMap();
+        // 同一槽位的key：容量16时低位相同的key可能落在同一簇
+        long[] keys = new long[8];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (long) i << 32;
+            map.put(keys[i], i);
+        }
+        assertTrue(map.remove(keys[0]));
+        assertTrue(map.remove(keys[3]));
+        assertFalse(map.remove(keys[3]));
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i == 0 || i == 3 ? -1 : i, map.get(keys[i], -1));
+        }
+    }
+
+    @Test
+    public void iterationVisitsAllEntries() {
+        LongIntMap map = new LongIntMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i * 31L, i);
+        }
+        int count = 0;
+        long valueSum = 0;
+        for (int slot = map.nextSlot(-1); slot >= 0; slot = map.nextSlot(slot)) {
+            assertEquals(map.valueAt(slot) * 31L, map.keyAt(slot));
+            count++;
+            valueSum += map.valueAt(slot);
+        }
+        assertEquals(100, count);
+        assertEquals(99 * 100 / 2, valueSum);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(-1, map.nextSlot(-1));
+    }
+
+    @Test
+    public void randomOperationsMatchHashMap() {
+        Random random = new Random(3);
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> reference = new HashMap<>();
+        for (int op = 0; op < 20000; op++) {
+            // 取值范围小，增删频繁，覆盖扩容及后移回填
+            long key = random.nextInt(500) * 0x100000001L;
+            if (random.nextBoolean()) {
+                int value = random.nextInt();
+                assertEquals(!reference.containsKey(key), map.put(key, value));
+                reference.put(key, value);
+            } else {
+                assertEquals(reference.remove(key) != null, map.remove(key));
+            }
+            assertEquals(reference.size(), map.size());
+        }
+        for (Map.Entry<Long, Integer> entry : reference.entrySet()) {
+            assertEquals((int) entry.getValue(), map.get(entry.getKey(), -1));
+        }
+    }
+}